@@ -0,0 +1,78 @@
+package thesis.benchmark;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.distributions.UniformDistr;
+import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.vms.Vm;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.Workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A fixed, seeded {@link Workload} shared by the benchmarks.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkWorkload {
+    static final int POPULATION_SIZE = 50;
+    private static final long SEED = 12345;
+
+    @Param({"100", "1000", "10000"})
+    public int cloudlets;
+
+    @Param({"50", "200", "1000"})
+    public int vms;
+
+    List<Cloudlet> cloudletList;
+    List<Vm> vmList;
+
+    @Setup
+    public void createWorkload() {
+        Workload workload = Workload.generate(0, vms, cloudlets, new Random(SEED));
+        vmList = new ArrayList<>(workload.createVms());
+        cloudletList = workload.createCloudlets();
+    }
+
+    /**
+     * Binds the heuristic to the workload.
+     */
+    <H extends CloudletToVmMappingHeuristic> H attach(H heuristic) {
+        heuristic.setCloudletList(cloudletList);
+        heuristic.setVmList(vmList);
+        return heuristic;
+    }
+
+    static UniformDistr random() {
+        return new UniformDistr(0, 1, SEED);
+    }
+
+    /**
+     * Creates evaluated random solutions on the heuristic's own {@link SchedulingProblem},
+     * so operators copy them the way they copy their own population.
+     */
+    static List<CloudletToVmMappingSolution> population(CloudletToVmMappingHeuristic heuristic, int size, long seed) {
+        IndexedCloudletToVmSolution initial = (IndexedCloudletToVmSolution) heuristic.getInitialSolution();
+        SchedulingProblem problem = initial.getProblem();
+        Random random = new Random(seed);
+
+        List<CloudletToVmMappingSolution> population = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            IndexedCloudletToVmSolution solution = new IndexedCloudletToVmSolution(heuristic, problem);
+            for (int cloudlet = 0; cloudlet < problem.getCloudletCount(); cloudlet++) {
+                solution.setVmIndex(cloudlet, random.nextInt(problem.getVmCount()));
+            }
+            solution.getCost();
+            population.add(solution);
+        }
+        return population;
+    }
+}
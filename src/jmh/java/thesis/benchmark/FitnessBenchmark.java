@@ -0,0 +1,70 @@
+package thesis.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import thesis.common.FitnessEvaluator;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.woa.CloudletToVmMappingWhaleOptimizationAlgorithm;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluations per second of {@code WeightedCloudletToVmSolution.getCost()}, through each path a solution
+ * can take. Run with {@code -prof gc} to also get the bytes allocated per evaluation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FitnessBenchmark {
+    private IndexedCloudletToVmSolution solution;
+    private SplittableRandom rng;
+    private int cloudletCount;
+    private int vmCount;
+
+    @Setup
+    public void createSolution(BenchmarkWorkload workload) {
+        var heuristic = workload.attach(new CloudletToVmMappingWhaleOptimizationAlgorithm(BenchmarkWorkload.random()));
+        solution = (IndexedCloudletToVmSolution) BenchmarkWorkload.population(heuristic, 1, 1).get(0);
+        rng = new SplittableRandom(1);
+        cloudletCount = workload.cloudlets;
+        vmCount = workload.vms;
+    }
+
+    /**
+     * A solution evaluated from scratch, as after being built cloudlet by cloudlet.
+     */
+    @Benchmark
+    public double fullEvaluation() {
+        return solution.getCost(true);
+    }
+
+    /**
+     * A solution that rebound one cloudlet since its last evaluation, as a spark or offspring.
+     */
+    @Benchmark
+    public double incrementalEvaluation() {
+        solution.setVmIndex(rng.nextInt(cloudletCount), rng.nextInt(vmCount));
+        return solution.getCost();
+    }
+
+    /**
+     * The {@code Map<Cloudlet, Vm>} path that solutions other than indexed ones take.
+     */
+    @Benchmark
+    public double mapEvaluation() {
+        return FitnessEvaluator.cost(solution.getResult());
+    }
+}
@@ -0,0 +1,157 @@
+package thesis.benchmark;
+
+import edu.buet.thesis.le.ga.CloudletToVmMappingGeneticAlgorithm;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.fwa.CloudletToVmMappingFireworksAlgorithm;
+import thesis.fwa.FireworksExplosion;
+import thesis.fwa.FireworksSelection;
+import thesis.wgoa.CloudletToVmMappingWGOA;
+import thesis.woa.CloudletToVmMappingWhaleOptimizationAlgorithm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations per second of the search operators, on populations of evaluated random solutions.
+ * The operators only create solutions; their evaluation is measured by {@link FitnessBenchmark}.
+ * Run with {@code -prof gc} to also get the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OperatorBenchmark {
+    /**
+     * Coefficients in the exploitation range of WOA, where whales encircle the best solution.
+     */
+    private static final double WOA_A = 0.5, WOA_C = 1.0;
+
+    /**
+     * The crossovers are private to their heuristics. Held in static finals, the handles are
+     * constants the JIT inlines, so calling through them costs the same as a direct call.
+     */
+    private static final MethodHandle GA_CROSSOVER = crossover(CloudletToVmMappingGeneticAlgorithm.class);
+    private static final MethodHandle WGOA_CROSSOVER = crossover(CloudletToVmMappingWGOA.class);
+
+    private FireworksExplosion explosion;
+    private FireworksSelection selection;
+    private List<CloudletToVmMappingSolution> fireworks;
+    private List<CloudletToVmMappingSolution> sparks;
+    private FireworksExplosion.Generation generation;
+
+    private CloudletToVmMappingWhaleOptimizationAlgorithm woa;
+    private List<CloudletToVmMappingSolution> whales;
+
+    private CloudletToVmMappingGeneticAlgorithm ga;
+    private List<CloudletToVmMappingSolution> individuals;
+
+    private CloudletToVmMappingWGOA wgoa;
+    private List<CloudletToVmMappingSolution> chromosomes;
+
+    private SplittableRandom rng;
+    private int next;
+
+    @Setup
+    public void createPopulations(BenchmarkWorkload workload) {
+        rng = new SplittableRandom(1);
+
+        var fwa = workload.attach(new CloudletToVmMappingFireworksAlgorithm(BenchmarkWorkload.random()));
+        fireworks = BenchmarkWorkload.population(fwa, BenchmarkWorkload.POPULATION_SIZE, 1);
+        var problem = ((IndexedCloudletToVmSolution) fireworks.get(0)).getProblem();
+        explosion = new FireworksExplosion(fwa, problem,
+                CloudletToVmMappingFireworksAlgorithm.A, CloudletToVmMappingFireworksAlgorithm.m,
+                CloudletToVmMappingFireworksAlgorithm.a, CloudletToVmMappingFireworksAlgorithm.b,
+                CloudletToVmMappingFireworksAlgorithm.EPSILON);
+        selection = new FireworksSelection(problem);
+        generation = explosion.generation(fireworks);
+        fireworks.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
+        // One generation worth of candidates, as selection sees them
+        sparks = new ArrayList<>(fireworks);
+        sparks.addAll(explosion.explode(fireworks, generation, rng.split()));
+
+        woa = workload.attach(new CloudletToVmMappingWhaleOptimizationAlgorithm(BenchmarkWorkload.random()));
+        whales = BenchmarkWorkload.population(woa, BenchmarkWorkload.POPULATION_SIZE, 2);
+        whales.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
+
+        ga = workload.attach(new CloudletToVmMappingGeneticAlgorithm(BenchmarkWorkload.random()));
+        individuals = BenchmarkWorkload.population(ga, BenchmarkWorkload.POPULATION_SIZE, 4);
+
+        wgoa = workload.attach(new CloudletToVmMappingWGOA(BenchmarkWorkload.random()));
+        chromosomes = BenchmarkWorkload.population(wgoa, BenchmarkWorkload.POPULATION_SIZE, 3);
+    }
+
+    private static MethodHandle crossover(Class<?> heuristic) {
+        try {
+            return MethodHandles.privateLookupIn(heuristic, MethodHandles.lookup())
+                    .findVirtual(heuristic, "crossover", MethodType.methodType(CloudletToVmMappingSolution[].class, List.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) % BenchmarkWorkload.POPULATION_SIZE;
+        return next;
+    }
+
+    @Benchmark
+    public CloudletToVmMappingSolution createSpark() {
+        CloudletToVmMappingSolution firework = fireworks.get(nextIndex());
+        return explosion.createSpark(firework, generation.amplitude(firework), rng);
+    }
+
+    @Benchmark
+    public CloudletToVmMappingSolution createGaussianSpark() {
+        return explosion.createGaussianSpark(fireworks.get(nextIndex()), rng);
+    }
+
+    @Benchmark
+    public CloudletToVmMappingSolution createNewPosition() {
+        return woa.createNewPosition(whales.get(nextIndex()), whales.get(0), WOA_A, WOA_C);
+    }
+
+    @Benchmark
+    public CloudletToVmMappingSolution createSpiralPosition() {
+        return woa.createSpiralPosition(whales.get(nextIndex()), whales.get(0));
+    }
+
+    /**
+     * The roulette selection of the next FWA population, which replaced {@code selectNewPopulation}.
+     */
+    @Benchmark
+    public List<CloudletToVmMappingSolution> selectNewPopulation() {
+        return selection.select(sparks, fireworks.get(0), BenchmarkWorkload.POPULATION_SIZE, rng);
+    }
+
+    /**
+     * Roulette selection of two parents and their uniform crossover into two children.
+     */
+    @Benchmark
+    public CloudletToVmMappingSolution[] gaCrossover() throws Throwable {
+        return (CloudletToVmMappingSolution[]) GA_CROSSOVER.invokeExact(ga, individuals);
+    }
+
+    @Benchmark
+    public CloudletToVmMappingSolution[] wgoaCrossover() throws Throwable {
+        return (CloudletToVmMappingSolution[]) WGOA_CROSSOVER.invokeExact(wgoa, chromosomes);
+    }
+}
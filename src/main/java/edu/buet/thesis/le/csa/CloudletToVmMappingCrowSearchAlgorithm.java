@@ -10,10 +10,18 @@ import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import thesis.common.WeightedCloudletToVmSolution;
-
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.TerminationPolicy;
+
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -30,8 +38,15 @@ public class CloudletToVmMappingCrowSearchAlgorithm
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
 
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingCrowSearchAlgorithm.class.getSimpleName());
+    private static final SearchMetrics.Timer FLIGHT = SearchMetrics.timer("csa.flight");
+    private static final SearchMetrics.Timer EVALUATE = SearchMetrics.timer("csa.evaluate");
 
     public CloudletToVmMappingCrowSearchAlgorithm(ContinuousDistribution random) {
         this.random = random;
@@ -59,12 +74,14 @@ public class CloudletToVmMappingCrowSearchAlgorithm
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -91,6 +108,13 @@ public class CloudletToVmMappingCrowSearchAlgorithm
         return this.vmList.get(idx);
     }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -121,13 +145,23 @@ public class CloudletToVmMappingCrowSearchAlgorithm
 
     @Override
     public boolean isToStopSearch() {
-        // TODO Auto-generated method stub
-        // Should we stop the search
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingCrowSearchAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
     }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         this.cloudletList.forEach((cloudlet) -> solution.bindCloudletToVm(cloudlet, this.getRandomVm()));
         return solution;
     }
@@ -168,13 +202,13 @@ public class CloudletToVmMappingCrowSearchAlgorithm
     }
 
     CloudletToVmMappingSolution solutionFromCrow(Double[][] crow) {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        IndexedCloudletToVmSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         for (int i = 0; i < crow.length; i++) {
             int maxIndex = 0;
             for (int j = 1; j < crow[i].length; j++)
                 if (crow[i][j] > crow[i][maxIndex])
                     maxIndex = j;
-            solution.bindCloudletToVm(this.cloudletList.get(i), this.vmList.get(maxIndex));
+            solution.setVmIndex(i, maxIndex);
         }
         return solution;
     }
@@ -196,9 +230,39 @@ public class CloudletToVmMappingCrowSearchAlgorithm
                 .toArray(s -> matrix.clone());
     }
 
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingCrowSearchAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingCrowSearchAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
+    }
+
     @Override
     public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
         final long startTime = System.currentTimeMillis();
+        problem = SchedulingProblem.of(cloudletList, vmList);
 
         var population = getFlock();
         var solutions = solutionsFromFlock(population);
@@ -207,9 +271,16 @@ public class CloudletToVmMappingCrowSearchAlgorithm
         this.bestSolutionSoFar = solutions.get(IntStream.range(0, memoryFitness.length)
                 .reduce(0, (left, right) -> memoryFitness[right] > memoryFitness[left] ? left : right));
 
+        termination = policy.start(improvementListener);
+        telemetry.start();
+        termination.countEvaluations(solutions.size());
+        // The crows evaluated in an iteration, kept only for the telemetry
+        List<CloudletToVmMappingSolution> flock = new ArrayList<>(telemetry.isEnabled() ? population.length : 0);
         int iterations = 1;
-        do {
+        while (iterations <= MAX_ITERATIONS && !isToStopSearch()) {
+            flock.clear();
             for (int p = 0; p < population.length; p++) {
+                final long flightStart = FLIGHT.start();
                 final var followerCrow = population[p];
 
                 var followedCrowIndex = p;
@@ -231,10 +302,14 @@ public class CloudletToVmMappingCrowSearchAlgorithm
                 } else {
                     population[p] = generateCrow(new Double[followerCrow.length][followedCrow[0].length]);
                 }
+                FLIGHT.stop(flightStart);
 
                 // Feasibility check
+                final long evaluateStart = EVALUATE.start();
                 final var followerCrowUpdated = population[p];
                 var solution = solutionFromCrow(followerCrowUpdated);
+                if (telemetry.isEnabled())
+                    flock.add(solution);
 
                 if (solution.getFitness() > memoryFitness[p]) {
                     memory[p] = followerCrowUpdated;
@@ -246,11 +321,14 @@ public class CloudletToVmMappingCrowSearchAlgorithm
                 } else if (solution.getFitness() < memoryFitness[p]) {
                     population[p] = memory[p];
                 }
+                EVALUATE.stop(evaluateStart);
             }
-            if (iterations % 20 == 0)
+            termination.update(bestSolutionSoFar, population.length);
+            telemetry.record(termination.getGenerations(), flock, termination.getEvaluations());
+            if (iterations % 20 == 0 && logger.isDebugEnabled())
                 logger.debug("[#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
             iterations++;
-        } while (iterations <= MAX_ITERATIONS);
+        }
         setSolveTime((System.currentTimeMillis() - startTime) / 1000.0);
         return bestSolutionSoFar;
     }
@@ -9,18 +9,28 @@ import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.TerminationPolicy;
 import thesis.common.WeightedCloudletToVmSolution;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 // Define a class that implements CloudletToVmMappingHeuristic interface
 public class CloudletToVmMappingGeneticAlgorithm
         implements CloudletToVmMappingHeuristic {
 
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingGeneticAlgorithm.class.getSimpleName());
+    private static final SearchMetrics.Timer TRIM = SearchMetrics.timer("ga.trim");
+    private static final SearchMetrics.Timer CROSSOVER = SearchMetrics.timer("ga.crossover");
 
     public final static int POPULATION_SIZE = 100;
     public final static int MAX_ITERATIONS = 1000;
@@ -33,6 +43,11 @@ public class CloudletToVmMappingGeneticAlgorithm
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
 
 
     // Define a constructor for the class
@@ -62,12 +77,14 @@ public class CloudletToVmMappingGeneticAlgorithm
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -94,6 +111,13 @@ public class CloudletToVmMappingGeneticAlgorithm
         return this.vmList.get(idx);
     }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -124,13 +148,23 @@ public class CloudletToVmMappingGeneticAlgorithm
 
     @Override
     public boolean isToStopSearch() {
-        // TODO Auto-generated method stub
-        // Should we stop the search
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingGeneticAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
     }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         this.cloudletList.forEach((cloudlet) -> solution.bindCloudletToVm(cloudlet, this.getRandomVm()));
         return solution;
     }
@@ -175,10 +209,10 @@ public class CloudletToVmMappingGeneticAlgorithm
         CloudletToVmMappingSolution father = parents[0];
         CloudletToVmMappingSolution mother = parents[1];
 
-        CloudletToVmMappingSolution son = new WeightedCloudletToVmSolution(father);
-        CloudletToVmMappingSolution daughter = new WeightedCloudletToVmSolution(mother);
+        CloudletToVmMappingSolution son = IndexedCloudletToVmSolution.copyOf(father, this, getProblem());
+        CloudletToVmMappingSolution daughter = IndexedCloudletToVmSolution.copyOf(mother, this, getProblem());
 
-        var cloudlets = new ArrayList<>(father.getResult().keySet());
+        var cloudlets = getProblem().getCloudletList();
 
         for (var cloudlet : cloudlets) {
             if (this.random.sample() < 0.5) {
@@ -193,7 +227,7 @@ public class CloudletToVmMappingGeneticAlgorithm
     }
 
     private void mutation(CloudletToVmMappingSolution solution) {
-        var cloudlets = new ArrayList<>(solution.getResult().keySet());
+        var cloudlets = getProblem().getCloudletList();
         var cloudlet = cloudlets.get(this.getRandomValue(cloudlets.size()));
         var vm = this.getRandomVm();
         solution.bindCloudletToVm(cloudlet, vm);
@@ -206,29 +240,73 @@ public class CloudletToVmMappingGeneticAlgorithm
         }
     }
 
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingGeneticAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingGeneticAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
+    }
+
     @Override
     public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
         final long startTime = System.currentTimeMillis();
+        problem = SchedulingProblem.of(cloudletList, vmList);
         this.bestSolutionSoFar = getInitialSolution();
         var population = generatePopulation();
+        termination = policy.start(improvementListener);
+        telemetry.start();
+        termination.countEvaluations(population.size());
         int iterations = 1;
-        do {
+        while (iterations <= MAX_ITERATIONS && !isToStopSearch()) {
+            final long trimStart = TRIM.start();
             trimPopulation(population);
+            TRIM.stop(trimStart);
+            // Each iteration only breeds two children, so the termination policy counts a generation every 20 of them
             if (iterations % 20 == 0) {
                 bestSolutionSoFar = population.get(population.size() - 1);
+                termination.update(bestSolutionSoFar);
                 //logger.debug("[#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
             }
 
+            final long crossoverStart = CROSSOVER.start();
             if (this.random.sample() < CROSSOVER_RATE) {
                 var children = crossover(population);
                 if (this.random.sample() < MUTATION_RATE) {
                     mutation(children[this.getRandomValue(2)]);
                 }
                 population.addAll(Arrays.asList(children));
+                termination.countEvaluations(children.length);
             }
+            CROSSOVER.stop(crossoverStart);
+            telemetry.record(iterations, population, termination.getEvaluations());
 
             iterations++;
-        } while (iterations <= MAX_ITERATIONS);
+        }
+        // The loop may stop between two updates, or before the first one, so the result comes from the final population
+        trimPopulation(population);
+        bestSolutionSoFar = population.get(population.size() - 1);
         setSolveTime((System.currentTimeMillis() - startTime) / 1000.0);
 
         return bestSolutionSoFar;
@@ -8,11 +8,20 @@ import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.cloudsimplus.heuristics.Heuristic;
-import thesis.common.WeightedCloudletToVmSolution;
-
+import thesis.common.FitnessEvaluator;
+import thesis.common.Fittest;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.TerminationPolicy;
+
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 public class CloudletToVmMappingAntColonyOptimizationAlgorithm implements CloudletToVmMappingHeuristic {
     private static final int POPULATION_SIZE = 50;
@@ -26,9 +35,18 @@ public class CloudletToVmMappingAntColonyOptimizationAlgorithm implements Cloudl
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
     private double[][] pheromoneLevels;
 
     private static final Logger logger = LoggerFactory.getLogger(CloudletToVmMappingAntColonyOptimizationAlgorithm.class.getSimpleName());
+    private static final SearchMetrics.Timer EVAPORATE = SearchMetrics.timer("aco.evaporate");
+    private static final SearchMetrics.Timer CONSTRUCT = SearchMetrics.timer("aco.construct");
+    private static final SearchMetrics.Timer DEPOSIT = SearchMetrics.timer("aco.deposit");
+    private static final SearchMetrics.Timer UPDATE_BEST = SearchMetrics.timer("aco.updateBest");
 
     public CloudletToVmMappingAntColonyOptimizationAlgorithm(ContinuousDistribution random) {
         this.random = random;
@@ -56,6 +74,7 @@ public class CloudletToVmMappingAntColonyOptimizationAlgorithm implements Cloudl
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         initializePheromoneLevels();
         return this;
     }
@@ -63,6 +82,7 @@ public class CloudletToVmMappingAntColonyOptimizationAlgorithm implements Cloudl
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -122,7 +142,43 @@ public class CloudletToVmMappingAntColonyOptimizationAlgorithm implements Cloudl
 
     @Override
     public boolean isToStopSearch() {
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingAntColonyOptimizationAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
+    }
+
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingAntColonyOptimizationAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingAntColonyOptimizationAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
+    }
+
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
     }
 
     @Override
@@ -149,7 +205,7 @@ public class CloudletToVmMappingAntColonyOptimizationAlgorithm implements Cloudl
     }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         cloudletList.forEach(cloudlet -> solution.bindCloudletToVm(cloudlet, getRandomVm()));
         return solution;
     }
@@ -189,28 +245,54 @@ public class CloudletToVmMappingAntColonyOptimizationAlgorithm implements Cloudl
     }
 
     private void updateBestSolution(List<CloudletToVmMappingSolution> population) {
-        population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-        if (bestSolutionSoFar == null || population.get(0).getFitness() > bestSolutionSoFar.getFitness()) {
-            bestSolutionSoFar = population.get(0);
+        FitnessEvaluator.evaluate(population);
+        CloudletToVmMappingSolution fittest = Fittest.of(population);
+        if (bestSolutionSoFar == null || fittest.getFitness() > bestSolutionSoFar.getFitness()) {
+            bestSolutionSoFar = fittest;
         }
     }
 
     @Override
     public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
         long startTime = System.currentTimeMillis();
+        problem = SchedulingProblem.of(cloudletList, vmList);
+        termination = policy.start(improvementListener);
+        telemetry.start();
         List<CloudletToVmMappingSolution> population = generateAntSolutions();
         updateBestSolution(population);
 
-        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+        for (int iteration = 0; iteration < MAX_ITERATIONS && !isToStopSearch(); iteration++) {
+            final long evaporateStart = EVAPORATE.start();
             evaporatePheromones();
+            EVAPORATE.stop(evaporateStart);
 
+            final long constructStart = CONSTRUCT.start();
             List<CloudletToVmMappingSolution> newSolutions = generateAntSolutions();
+            CONSTRUCT.stop(constructStart);
+            final long depositStart = DEPOSIT.start();
             for (CloudletToVmMappingSolution solution : newSolutions) {
                 updatePheromones(solution);
             }
+            DEPOSIT.stop(depositStart);
 
             population = newSolutions;
+            final long updateStart = UPDATE_BEST.start();
             updateBestSolution(population);
+            UPDATE_BEST.stop(updateStart);
+            termination.update(bestSolutionSoFar, population.size());
+            telemetry.record(termination.getGenerations(), population, termination.getEvaluations());
             logger.debug("[#{}] : {}", iteration, bestSolutionSoFar.getFitness());
         }
 
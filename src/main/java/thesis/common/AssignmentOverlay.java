@@ -0,0 +1,94 @@
+package thesis.common;
+
+import java.util.Arrays;
+
+/**
+ * The cloudlets an {@link IndexedCloudletToVmSolution} rebound while still sharing the
+ * assignment array of the solution it was copied from, kept in an open-addressing int-to-int table.
+ */
+final class AssignmentOverlay {
+    /**
+     * Returned by {@link #get(int)} for cloudlets that were not rebound,
+     * since {@link IndexedCloudletToVmSolution#UNASSIGNED} is a valid value.
+     */
+    static final int ABSENT = Integer.MIN_VALUE;
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    AssignmentOverlay() {
+        allocate(16);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the VM position the cloudlet was rebound to, or {@link #ABSENT}
+     */
+    int get(int cloudletIndex) {
+        int mask = keys.length - 1;
+        for (int slot = hash(cloudletIndex) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == cloudletIndex) {
+                return values[slot];
+            }
+        }
+        return ABSENT;
+    }
+
+    void put(int cloudletIndex, int vmIndex) {
+        int mask = keys.length - 1;
+        int slot = hash(cloudletIndex) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == cloudletIndex) {
+                values[slot] = vmIndex;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = cloudletIndex;
+        values[slot] = vmIndex;
+        // Keep the table at most half full so probes stay short
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Writes every rebound cloudlet into a full assignment array.
+     */
+    void applyTo(int[] vmIndexes) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                vmIndexes[keys[slot]] = values[slot];
+            }
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,220 @@
+package thesis.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs independent simulations, such as the repetitions and parameter combinations of a sweep,
+ * on a fixed number of threads. Each {@link SimulationAbstractFactory.Simulation} owns its
+ * {@code CloudSimPlus} instance, so runs share nothing but the console.
+ *
+ * <p>While the runner is open, what a run prints to {@code System.out} and {@code System.err}
+ * from its own thread is buffered, and written out in one piece when the run finishes, so the
+ * output of concurrent runs never interleaves. Each result is then handed to the consumer given
+ * at construction, in completion order and always from the thread that called {@link #submit(Callable)}
+ * or {@link #close()}, so the consumer can aggregate results or write files without locking.</p>
+ *
+ * <p>Heuristics that search in parallel start threads of their own, so a sweep of them may need
+ * a parallelism below the number of cores.</p>
+ *
+ * @param <R> the result of a run
+ */
+public final class BatchRunner<R> implements AutoCloseable {
+    /**
+     * The system property overriding {@link #defaultParallelism()}.
+     */
+    public static final String PARALLELISM_PROPERTY = "thesis.batch.parallelism";
+
+    private final ExecutorService pool;
+    private final CompletionService<Outcome<R>> completion;
+    private final Consumer<? super R> onResult;
+    private final RoutedStream out, err;
+    private final List<Throwable> failures = new ArrayList<>();
+    private int pending, submitted;
+
+    /**
+     * Creates a runner with {@link #defaultParallelism()} threads.
+     */
+    public BatchRunner(Consumer<? super R> onResult) {
+        this(defaultParallelism(), onResult);
+    }
+
+    /**
+     * @param parallelism how many runs may execute at the same time
+     * @param onResult    called with the result of each run that completes normally
+     */
+    public BatchRunner(int parallelism, Consumer<? super R> onResult) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive, got %d".formatted(parallelism));
+        }
+        this.onResult = Objects.requireNonNull(onResult);
+
+        final var threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(parallelism, task -> {
+            final var thread = new Thread(task, "batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.completion = new ExecutorCompletionService<>(pool);
+
+        this.out = new RoutedStream(System.out);
+        this.err = new RoutedStream(System.err);
+        System.setOut(out.printStream);
+        System.setErr(err.printStream);
+    }
+
+    /**
+     * @return the value of the {@value #PARALLELISM_PROPERTY} system property, or the number of available cores
+     */
+    public static int defaultParallelism() {
+        return Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Queues a run, after delivering the results of runs that already finished.
+     */
+    public void submit(Callable<? extends R> run) {
+        Objects.requireNonNull(run);
+        deliverFinished();
+        completion.submit(() -> execute(run));
+        pending++;
+        submitted++;
+    }
+
+    /**
+     * Waits for every queued run, delivering results as they complete, and restores the console.
+     *
+     * @throws IllegalStateException if any run failed, after all the others completed
+     */
+    @Override
+    public void close() {
+        try {
+            while (pending > 0) {
+                deliver(completion.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+            System.setOut(out.target);
+            System.setErr(err.target);
+        }
+
+        if (!failures.isEmpty()) {
+            final var exception = new IllegalStateException("%d of %d runs failed".formatted(failures.size(), submitted), failures.get(0));
+            failures.stream().skip(1).forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+
+    private Outcome<R> execute(Callable<? extends R> run) {
+        final var outBuffer = out.capture();
+        final var errBuffer = err.capture();
+        try {
+            return new Outcome<>(run.call(), null, outBuffer, errBuffer);
+        } catch (Exception | Error e) {
+            return new Outcome<>(null, e, outBuffer, errBuffer);
+        } finally {
+            out.release();
+            err.release();
+        }
+    }
+
+    private void deliverFinished() {
+        Future<Outcome<R>> finished;
+        while ((finished = completion.poll()) != null) {
+            deliver(finished);
+        }
+    }
+
+    private void deliver(Future<Outcome<R>> finished) {
+        pending--;
+        final Outcome<R> outcome;
+        try {
+            outcome = finished.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            // execute() catches everything the run throws, so this is a bug in the runner itself
+            throw new IllegalStateException(e.getCause());
+        }
+
+        out.target.write(outcome.out().toByteArray(), 0, outcome.out().size());
+        out.target.flush();
+        err.target.write(outcome.err().toByteArray(), 0, outcome.err().size());
+        err.target.flush();
+
+        if (outcome.failure() == null) {
+            onResult.accept(outcome.result());
+        } else {
+            failures.add(outcome.failure());
+            err.target.println("A run failed:");
+            outcome.failure().printStackTrace(err.target);
+        }
+    }
+
+    private record Outcome<R>(R result, Throwable failure, ByteArrayOutputStream out, ByteArrayOutputStream err) {
+    }
+
+    /**
+     * A console stream whose bytes go to the buffer of the run executing on the writing thread, if any.
+     */
+    private static final class RoutedStream extends OutputStream {
+        private final PrintStream target;
+        private final PrintStream printStream;
+        private final ThreadLocal<ByteArrayOutputStream> buffer = new ThreadLocal<>();
+
+        RoutedStream(PrintStream target) {
+            this.target = target;
+            this.printStream = new PrintStream(this, true);
+        }
+
+        ByteArrayOutputStream capture() {
+            final var runBuffer = new ByteArrayOutputStream();
+            buffer.set(runBuffer);
+            return runBuffer;
+        }
+
+        void release() {
+            printStream.flush();
+            buffer.remove();
+        }
+
+        private OutputStream destination() {
+            final var runBuffer = buffer.get();
+            return runBuffer == null ? target : runBuffer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            destination().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            destination().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.get() == null) {
+                target.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package thesis.common;
+
+import org.cloudsimplus.heuristics.HeuristicSolution;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The best solution found so far by searches running on several threads.
+ * {@link #offer(HeuristicSolution)} replaces the held solution only with a strictly fitter one,
+ * using compare-and-set, so concurrent offers never lose an improvement and readers never lock.
+ *
+ * <p>Offered solutions must not be modified afterwards, since other threads may read them at any time.</p>
+ */
+public final class BestSolutionHolder<S extends HeuristicSolution<?>> {
+    private final AtomicReference<S> best = new AtomicReference<>();
+
+    /**
+     * @return the best solution offered so far, or null if none was offered
+     */
+    public S get() {
+        return best.get();
+    }
+
+    /**
+     * @return true if the candidate became the best solution
+     */
+    public boolean offer(S candidate) {
+        double fitness = candidate.getFitness();
+        S current;
+        do {
+            current = best.get();
+            if (current != null && fitness <= current.getFitness()) {
+                return false;
+            }
+        } while (!best.compareAndSet(current, candidate));
+        return true;
+    }
+}
@@ -0,0 +1,196 @@
+package thesis.common;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-generation statistics of a search, kept in a ring buffer allocated once, so recording
+ * a generation neither allocates nor formats anything. When a search runs for more generations
+ * than the capacity, the oldest samples are overwritten.
+ *
+ * <p>A heuristic given a telemetry calls {@link #start()} when {@link org.cloudsimplus.heuristics.Heuristic#solve()}
+ * begins and {@link #record(int, List, long)} after each generation; the samples can be read once
+ * {@code solve()} returns. Recording is not thread-safe: searches running on several threads
+ * record from the thread that coordinates them. {@link #DISABLED} records nothing, so heuristics
+ * can always call it.</p>
+ */
+public final class ConvergenceTelemetry {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Records nothing and costs a branch per generation.
+     */
+    public static final ConvergenceTelemetry DISABLED = new ConvergenceTelemetry(false, 0);
+
+    /**
+     * The columns written by {@link #writeTo(ResultsSink)}.
+     */
+    public static final ResultsSink.Schema SCHEMA = ResultsSink.Schema.of(1,
+            "generation,best_fitness,mean_fitness,worst_fitness,evaluations,diversity,elapsed_nanos");
+
+    /**
+     * A finished generation.
+     *
+     * @param evaluations the solutions evaluated since the search started
+     * @param diversity   the mean fraction of cloudlets each member of the population maps to
+     *                    another VM than the fittest member does, from 0 for a converged population to 1
+     * @param nanos       the time elapsed since the search started
+     */
+    public record Sample(int generation, double best, double mean, double worst, long evaluations, double diversity, long nanos) {
+    }
+
+    private final int capacity;
+    private final int[] generations;
+    private final double[] best, mean, worst, diversity;
+    private final long[] evaluations, nanos;
+    private long recorded;
+    private long startNanos;
+
+    public ConvergenceTelemetry() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity how many of the latest generations are kept
+     */
+    public ConvergenceTelemetry(int capacity) {
+        this(true, capacity);
+    }
+
+    private ConvergenceTelemetry(boolean enabled, int capacity) {
+        if (enabled && capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got %d".formatted(capacity));
+        }
+        this.capacity = enabled ? capacity : 0;
+        this.generations = new int[this.capacity];
+        this.best = new double[this.capacity];
+        this.mean = new double[this.capacity];
+        this.worst = new double[this.capacity];
+        this.diversity = new double[this.capacity];
+        this.evaluations = new long[this.capacity];
+        this.nanos = new long[this.capacity];
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Drops the samples of any previous search and starts the clock.
+     */
+    public void start() {
+        if (capacity == 0) {
+            return;
+        }
+        recorded = 0;
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records a finished generation.
+     *
+     * @param generation  how many generations the search has finished
+     * @param population  the population the generation ended with; it is only read
+     * @param evaluations the solutions evaluated since the search started
+     */
+    public void record(int generation, List<? extends CloudletToVmMappingSolution> population, long evaluations) {
+        if (capacity == 0 || population.isEmpty()) {
+            return;
+        }
+        final long elapsed = System.nanoTime() - startNanos;
+
+        CloudletToVmMappingSolution fittest = population.get(0);
+        double sum = 0, min = Double.POSITIVE_INFINITY;
+        for (final var solution : population) {
+            final double fitness = solution.getFitness();
+            sum += fitness;
+            min = Math.min(min, fitness);
+            if (fitness > fittest.getFitness()) {
+                fittest = solution;
+            }
+        }
+
+        double distances = 0;
+        for (final var solution : population) {
+            distances += distance(solution, fittest);
+        }
+
+        final int slot = (int) (recorded++ % capacity);
+        this.generations[slot] = generation;
+        this.best[slot] = fittest.getFitness();
+        this.mean[slot] = sum / population.size();
+        this.worst[slot] = min;
+        this.evaluations[slot] = evaluations;
+        this.diversity[slot] = distances / population.size();
+        this.nanos[slot] = elapsed;
+    }
+
+    /**
+     * @return the fraction of cloudlets the two solutions map to different VMs
+     */
+    private static double distance(CloudletToVmMappingSolution solution, CloudletToVmMappingSolution other) {
+        if (solution == other) {
+            return 0;
+        }
+        if (solution instanceof IndexedCloudletToVmSolution indexed && other instanceof IndexedCloudletToVmSolution otherIndexed
+                && indexed.getProblem() == otherIndexed.getProblem()) {
+            final int cloudlets = indexed.getProblem().getCloudletCount();
+            int different = 0;
+            for (int i = 0; i < cloudlets; i++) {
+                if (indexed.getVmIndex(i) != otherIndexed.getVmIndex(i)) {
+                    different++;
+                }
+            }
+            return cloudlets == 0 ? 0 : (double) different / cloudlets;
+        }
+
+        final var result = solution.getResult();
+        final var otherResult = other.getResult();
+        if (result.isEmpty()) {
+            return 0;
+        }
+        int different = 0;
+        for (final Map.Entry<?, ?> entry : result.entrySet()) {
+            if (!Objects.equals(entry.getValue(), otherResult.get(entry.getKey()))) {
+                different++;
+            }
+        }
+        return (double) different / result.size();
+    }
+
+    /**
+     * @return how many generations were recorded since {@link #start()}, including those overwritten
+     */
+    public long getRecordedCount() {
+        return recorded;
+    }
+
+    /**
+     * @return the samples kept, oldest first
+     */
+    public List<Sample> getSamples() {
+        final int size = (int) Math.min(recorded, capacity);
+        final var samples = new ArrayList<Sample>(size);
+        for (long i = recorded - size; i < recorded; i++) {
+            final int slot = (int) (i % capacity);
+            samples.add(new Sample(generations[slot], best[slot], mean[slot], worst[slot], evaluations[slot], diversity[slot], nanos[slot]));
+        }
+        return samples;
+    }
+
+    /**
+     * Writes the samples kept, oldest first, to a sink of {@link #SCHEMA}.
+     */
+    public void writeTo(ResultsSink sink) {
+        if (!sink.getSchema().equals(SCHEMA)) {
+            throw new IllegalArgumentException("The sink must have the telemetry schema, got " + sink.getSchema());
+        }
+        for (final var sample : getSamples()) {
+            sink.write(sample.generation(), sample.best(), sample.mean(), sample.worst(), sample.evaluations(), sample.diversity(), sample.nanos());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package thesis.common;
+
+import static thesis.common.WeightedCloudletToVmSolution.BANDWIDTH_WEIGHT;
+import static thesis.common.WeightedCloudletToVmSolution.EXECUTION_TIME_WEIGHT;
+import static thesis.common.WeightedCloudletToVmSolution.PES_WEIGHT;
+import static thesis.common.WeightedCloudletToVmSolution.RAM_WEIGHT;
+import static thesis.common.WeightedCloudletToVmSolution.THROUGHPUT_WEIGHT;
+
+/**
+ * The weighted cost of {@link WeightedCloudletToVmSolution} computed over primitive per-VM sums.
+ *
+ * <p>The original computation standardized each VM usage by re-averaging all usages,
+ * which is quadratic in the number of used VMs. Since {@code avg(x / mean(x))} is {@code sum(x) / mean(x) / n},
+ * one sweep collecting the three sums is enough. Summation order differs from the stream-based version,
+ * so results agree with it within a relative error of {@value #TOLERANCE}, not bit for bit.</p>
+ */
+final class CostKernel {
+    /**
+     * Maximum relative difference between this kernel and the original stream-based computation.
+     */
+    static final double TOLERANCE = 1e-12;
+
+    private CostKernel() {
+    }
+
+    /**
+     * @param pesUsage  PEs required by the VM cloudlets, relative to the VM PEs
+     * @param timeUsage instructions of the VM cloudlets, relative to the VM total MIPS
+     * @return the cost of a single VM, as {@link WeightedCloudletToVmSolution#getVmCost} computes it
+     */
+    static double vmCost(double ram, double bw, double cpu, double pesUsage, double timeUsage) {
+        return ram * RAM_WEIGHT
+                + bw * BANDWIDTH_WEIGHT
+                + cpu * THROUGHPUT_WEIGHT
+                + pesUsage * PES_WEIGHT
+                + timeUsage * EXECUTION_TIME_WEIGHT;
+    }
+
+    /**
+     * Computes the solution cost in a single sweep over the first {@code usedVms} slots of the arrays.
+     */
+    static double cost(int usedVms, double[] ram, double[] bw, double[] cpu, double[] pesUsage, double[] timeUsage) {
+        double vmCostSum = 0;
+        double pesUsageSum = 0;
+        double timeUsageSum = 0;
+        for (int vm = 0; vm < usedVms; vm++) {
+            vmCostSum += vmCost(ram[vm], bw[vm], cpu[vm], pesUsage[vm], timeUsage[vm]);
+            pesUsageSum += pesUsage[vm];
+            timeUsageSum += timeUsage[vm];
+        }
+        return cost(usedVms, vmCostSum, pesUsageSum, timeUsageSum);
+    }
+
+    /**
+     * Combines the per-VM sums into the solution cost.
+     *
+     * @return the cost, or {@link Double#MAX_VALUE} if no VM is used
+     */
+    static double cost(int usedVms, double vmCostSum, double pesUsageSum, double timeUsageSum) {
+        if (usedVms == 0) {
+            return Double.MAX_VALUE;
+        }
+
+        // Both usages are standardized by the mean PEs usage, as the original computation does
+        double meanPesUsage = pesUsageSum / usedVms;
+        double standardizePesCost = pesUsageSum / meanPesUsage / usedVms;
+        double standardizeTimeCost = timeUsageSum / meanPesUsage / usedVms;
+
+        return (vmCostSum + standardizePesCost * PES_WEIGHT + standardizeTimeCost * EXECUTION_TIME_WEIGHT) / usedVms;
+    }
+}
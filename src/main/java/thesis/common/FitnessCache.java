@@ -0,0 +1,168 @@
+package thesis.common;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of solution costs keyed by the 64-bit Zobrist hash of their assignment
+ * (see {@link IndexedCloudletToVmSolution#getAssignmentHash()}), so a mapping that is generated
+ * again is looked up instead of being evaluated from scratch. Solutions that can update their cost
+ * incrementally skip the cache, since a lookup would cost more than the update.
+ *
+ * <p>The cache is set-associative: a hash selects a set of {@value #WAYS} slots, and a full set
+ * evicts with the CLOCK algorithm, skipping and clearing slots that were read since the hand last
+ * passed them. Sets are guarded by striped locks, since sparks are evaluated in parallel.</p>
+ *
+ * <p>Two different assignments only share an entry if their 64-bit hashes collide, which is
+ * negligible for the number of solutions a search evaluates.</p>
+ */
+public final class FitnessCache {
+    /**
+     * Roughly 1 MiB per cache, shared by every solution of a problem.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int WAYS = 8;
+    private static final int LOCK_STRIPES = 64;
+    private static final SearchMetrics.Counter HITS = SearchMetrics.counter("fitnessCache.hits");
+    private static final SearchMetrics.Counter MISSES = SearchMetrics.counter("fitnessCache.misses");
+
+    private final long[] keys;
+    private final double[] costs;
+    private final boolean[] occupied;
+    private final boolean[] referenced;
+    private final byte[] hands;
+    private final int setMask;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public FitnessCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the maximum number of cached costs, rounded up to a power of two of at least {@value #WAYS}
+     */
+    public FitnessCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The cache capacity must be positive, got %d".formatted(capacity));
+        }
+        int neededSets = (capacity + WAYS - 1) / WAYS;
+        int sets = neededSets == 1 ? 1 : Integer.highestOneBit(neededSets - 1) << 1;
+        this.keys = new long[sets * WAYS];
+        this.costs = new double[sets * WAYS];
+        this.occupied = new boolean[sets * WAYS];
+        this.referenced = new boolean[sets * WAYS];
+        this.hands = new byte[sets];
+        this.setMask = sets - 1;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return the cached cost of the assignment with the given hash, or NaN if it is not cached
+     */
+    public double get(long hash) {
+        int set = setOf(hash);
+        synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+            int first = set * WAYS;
+            for (int slot = first; slot < first + WAYS; slot++) {
+                if (occupied[slot] && keys[slot] == hash) {
+                    referenced[slot] = true;
+                    hits.increment();
+                    HITS.increment();
+                    return costs[slot];
+                }
+            }
+        }
+        misses.increment();
+        MISSES.increment();
+        return Double.NaN;
+    }
+
+    public void put(long hash, double cost) {
+        int set = setOf(hash);
+        synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+            int first = set * WAYS;
+            int free = -1;
+            for (int slot = first; slot < first + WAYS; slot++) {
+                if (occupied[slot] && keys[slot] == hash) {
+                    costs[slot] = cost;
+                    return;
+                }
+                if (!occupied[slot] && free < 0) {
+                    free = slot;
+                }
+            }
+            if (free >= 0) {
+                store(free, hash, cost);
+                return;
+            }
+
+            // Every slot is taken: advance the hand, giving each recently read slot a second chance
+            int hand = hands[set];
+            while (referenced[first + hand]) {
+                referenced[first + hand] = false;
+                hand = (hand + 1) % WAYS;
+            }
+            store(first + hand, hash, cost);
+            hands[set] = (byte) ((hand + 1) % WAYS);
+        }
+    }
+
+    /**
+     * Drops the cost of the assignment with the given hash, if cached.
+     */
+    public void remove(long hash) {
+        int set = setOf(hash);
+        synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+            int first = set * WAYS;
+            for (int slot = first; slot < first + WAYS; slot++) {
+                if (occupied[slot] && keys[slot] == hash) {
+                    occupied[slot] = false;
+                    referenced[slot] = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that found a cached cost, or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "FitnessCache[capacity=%d, hits=%d, misses=%d]".formatted(getCapacity(), getHits(), getMisses());
+    }
+
+    private void store(int slot, long hash, double cost) {
+        keys[slot] = hash;
+        costs[slot] = cost;
+        occupied[slot] = true;
+        referenced[slot] = false;
+    }
+
+    private int setOf(long hash) {
+        // The low bits of a Zobrist hash are as random as the high ones
+        return (int) hash & setMask;
+    }
+}
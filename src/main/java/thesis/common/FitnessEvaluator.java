@@ -0,0 +1,125 @@
+package thesis.common;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.heuristics.HeuristicSolution;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the cost of {@link WeightedCloudletToVmSolution} as a pure function of an assignment.
+ * The per-VM sums are kept in thread-local scratch arrays, so any number of threads
+ * can evaluate different solutions at the same time.
+ * Solutions backed by a {@link SchedulingProblem} are evaluated by their {@link VmLoads} instead,
+ * which also keeps the sums for later incremental updates.
+ */
+public final class FitnessEvaluator {
+    /**
+     * Populations smaller than this are evaluated on the calling thread,
+     * since splitting them costs more than it saves.
+     */
+    private static final int PARALLEL_THRESHOLD = 32;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private FitnessEvaluator() {
+    }
+
+    /**
+     * Computes the cost of a mapping that is not backed by a {@link SchedulingProblem},
+     * reading the attributes from the cloudlets and VMs themselves.
+     *
+     * @return the cost of the mapping, or {@link Double#MAX_VALUE} if it is empty
+     */
+    public static double cost(Map<Cloudlet, Vm> mapping) {
+        // There can't be more used VMs than mapped cloudlets
+        Scratch scratch = SCRATCH.get().clear(mapping.size());
+        Map<Vm, Integer> slots = new HashMap<>();
+        int usedVms = 0;
+
+        for (var entry : mapping.entrySet()) {
+            Integer slot = slots.get(entry.getValue());
+            if (slot == null) {
+                slot = usedVms++;
+                slots.put(entry.getValue(), slot);
+                scratch.vms[slot] = entry.getValue();
+            }
+
+            Cloudlet cloudlet = entry.getKey();
+            scratch.ram[slot] += cloudlet.getUtilizationOfRam();
+            scratch.bw[slot] += cloudlet.getUtilizationOfBw();
+            scratch.cpu[slot] += cloudlet.getUtilizationOfCpu();
+            scratch.pes[slot] += cloudlet.getPesNumber();
+            scratch.length[slot] += cloudlet.getTotalLength();
+        }
+
+        // Turn the sums into usages relative to each VM capacity, reusing the arrays
+        for (int vm = 0; vm < usedVms; vm++) {
+            scratch.pes[vm] /= scratch.vms[vm].getPesNumber();
+            scratch.length[vm] /= scratch.vms[vm].getTotalMipsCapacity();
+            scratch.vms[vm] = null;
+        }
+
+        return CostKernel.cost(usedVms, scratch.ram, scratch.bw, scratch.cpu, scratch.pes, scratch.length);
+    }
+
+    /**
+     * Computes and caches the cost of every solution in the population, using the common fork-join pool
+     * for large populations. Each solution is evaluated once, even if it appears several times.
+     */
+    public static void evaluate(Collection<? extends HeuristicSolution<?>> population) {
+        if (population.size() < PARALLEL_THRESHOLD) {
+            evaluateSequentially(population);
+            return;
+        }
+
+        // Two threads must never fill in the cached cost of the same solution
+        Set<HeuristicSolution<?>> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(population);
+        distinct.parallelStream().forEach(HeuristicSolution::getCost);
+    }
+
+    /**
+     * Computes and caches the cost of every solution in the population on the calling thread,
+     * for searches that already run one per core.
+     */
+    public static void evaluateSequentially(Collection<? extends HeuristicSolution<?>> population) {
+        population.forEach(HeuristicSolution::getCost);
+    }
+
+    /**
+     * Per-thread accumulators, grown to the largest problem seen by the thread.
+     */
+    private static final class Scratch {
+        private Vm[] vms = new Vm[0];
+        private double[] ram = new double[0];
+        private double[] bw = new double[0];
+        private double[] cpu = new double[0];
+        private double[] pes = new double[0];
+        private double[] length = new double[0];
+
+        private Scratch clear(int size) {
+            if (vms.length < size) {
+                vms = new Vm[size];
+                ram = new double[size];
+                bw = new double[size];
+                cpu = new double[size];
+                pes = new double[size];
+                length = new double[size];
+                return this;
+            }
+            Arrays.fill(ram, 0, size, 0);
+            Arrays.fill(bw, 0, size, 0);
+            Arrays.fill(cpu, 0, size, 0);
+            Arrays.fill(pes, 0, size, 0);
+            Arrays.fill(length, 0, size, 0);
+            return this;
+        }
+    }
+}
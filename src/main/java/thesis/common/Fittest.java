@@ -0,0 +1,122 @@
+package thesis.common;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks the fittest solutions of a population without sorting all of it, for populations
+ * that hold every spark of a generation but only need their best member or a few survivors.
+ *
+ * <p>Fitness is compared with {@link Double#compare(double, double)} and ties keep population order,
+ * so both methods pick the same solutions, in the same order, as a stable sort by descending fitness
+ * followed by taking its first elements.</p>
+ */
+public final class Fittest {
+    private Fittest() {
+    }
+
+    /**
+     * Scans the population once.
+     *
+     * @return the fittest solution, or {@code null} if the population is empty
+     */
+    public static <S extends CloudletToVmMappingSolution> S of(List<S> population) {
+        S fittest = null;
+        double maxFitness = 0;
+        for (S solution : population) {
+            double fitness = solution.getFitness();
+            if (fittest == null || Double.compare(fitness, maxFitness) > 0) {
+                fittest = solution;
+                maxFitness = fitness;
+            }
+        }
+        return fittest;
+    }
+
+    /**
+     * Keeps the {@code k} fittest positions seen so far in a bounded heap rooted at the least fit of them,
+     * so a population of n solutions costs O(n log k) instead of the O(n log n) of a full sort.
+     * The population itself is left untouched.
+     *
+     * @return a new list of the {@code k} fittest solutions, or of all of them if there are fewer, fittest first
+     */
+    public static <S extends CloudletToVmMappingSolution> List<S> top(List<S> population, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of solutions to keep can't be negative, got %d".formatted(k));
+        }
+        final int n = population.size();
+        final double[] fitness = new double[n];
+        for (int i = 0; i < n; i++) {
+            fitness[i] = population.get(i).getFitness();
+        }
+
+        final int size = Math.min(k, n);
+        final int[] heap = new int[size];
+        for (int i = 0; i < n; i++) {
+            if (i < size) {
+                heap[i] = i;
+                siftUp(heap, i, fitness);
+            } else if (size > 0 && fitter(i, heap[0], fitness)) {
+                heap[0] = i;
+                siftDown(heap, size, fitness);
+            }
+        }
+
+        // Emptying the heap yields the survivors least fit first, so they are stored from the back
+        final int[] order = new int[size];
+        for (int remaining = size; remaining > 0; remaining--) {
+            order[remaining - 1] = heap[0];
+            heap[0] = heap[remaining - 1];
+            siftDown(heap, remaining - 1, fitness);
+        }
+        final List<S> fittest = new ArrayList<>(size);
+        for (int i : order) {
+            fittest.add(population.get(i));
+        }
+        return fittest;
+    }
+
+    /**
+     * @return whether the solution at position {@code i} sorts before the one at {@code j}
+     */
+    private static boolean fitter(int i, int j, double[] fitness) {
+        final int comparison = Double.compare(fitness[i], fitness[j]);
+        return comparison > 0 || comparison == 0 && i < j;
+    }
+
+    private static void siftUp(int[] heap, int position, double[] fitness) {
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            if (!fitter(heap[parent], heap[position], fitness)) {
+                return;
+            }
+            swap(heap, parent, position);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, double[] fitness) {
+        int position = 0;
+        while (true) {
+            final int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int leastFit = right < size && fitter(heap[left], heap[right], fitness) ? right : left;
+            if (!fitter(heap[position], heap[leastFit], fitness)) {
+                return;
+            }
+            swap(heap, position, leastFit);
+            position = leastFit;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        final int swapped = heap[i];
+        heap[i] = heap[j];
+        heap[j] = swapped;
+    }
+}
@@ -0,0 +1,318 @@
+package thesis.common;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.heuristics.Heuristic;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link WeightedCloudletToVmSolution} that keeps the mapping in an {@code int[]}
+ * holding, for each cloudlet position of the {@link SchedulingProblem}, the position of its VM.
+ *
+ * <p>Copying a solution never builds a new HashMap with one entry per cloudlet.
+ * The {@code Map<Cloudlet, Vm>} returned by {@link #getResult()} is a read-only view over the array,
+ * so it is only materialized when someone, usually the broker, walks the final mapping.</p>
+ *
+ * <p>After the first evaluation the solution keeps {@link VmLoads per-VM aggregates},
+ * which copies inherit. Rebinding a cloudlet then updates the cost in constant time,
+ * so a spark or offspring that moved a few cloudlets is not re-evaluated from scratch.</p>
+ *
+ * <p>A copy shares the array of its source and records its own rebindings in an {@link AssignmentOverlay}.
+ * Most sparks are discarded by selection right after being evaluated, so they never pay for a full array.
+ * The array is cloned once the overlay outgrows 1/{@value #MAX_OVERLAY_FRACTION} of the cloudlets
+ * or the solution is {@link #materialize() materialized}. Copies of a solution that still has an overlay
+ * get their own array, so overlays never stack.</p>
+ *
+ * <p>The solution also keeps a Zobrist hash of its assignment: the XOR, over assigned cloudlets,
+ * of a pseudo-random key per (cloudlet, VM) pair. Rebinding a cloudlet updates it with two XORs,
+ * and a solution that would be evaluated from scratch looks it up in the problem's {@link FitnessCache} first,
+ * so an assignment that was generated again is not evaluated again. Only costs computed from scratch are cached,
+ * and a solution whose cost came from the cache builds the per-VM aggregates an evaluation would have left
+ * on its first rebinding, so costs never depend on which solution happened to reach an assignment first.</p>
+ */
+public class IndexedCloudletToVmSolution extends WeightedCloudletToVmSolution {
+    public static final int UNASSIGNED = -1;
+
+    /**
+     * An overlay holding more than 1/8 of the cloudlets takes about as much memory as the array it saves.
+     */
+    private static final int MAX_OVERLAY_FRACTION = 8;
+
+    private final SchedulingProblem problem;
+    private int[] vmIndexes;
+    /**
+     * Whether {@link #vmIndexes} may be read by another solution, so it must be cloned before being written.
+     */
+    private boolean sharedIndexes;
+    private AssignmentOverlay overlay;
+    private int assignedCloudlets;
+    private long assignmentHash;
+    private VmLoads loads;
+    private Map<Cloudlet, Vm> result;
+
+    public IndexedCloudletToVmSolution(Heuristic heuristic, SchedulingProblem problem) {
+        super(heuristic);
+        this.problem = problem;
+        this.vmIndexes = new int[problem.getCloudletCount()];
+        Arrays.fill(this.vmIndexes, UNASSIGNED);
+    }
+
+    public IndexedCloudletToVmSolution(IndexedCloudletToVmSolution source) {
+        super(source.getHeuristic());
+        this.problem = source.problem;
+        if (source.overlay == null) {
+            // Only ever sets the flag, so several threads may copy the same source
+            source.sharedIndexes = true;
+            this.vmIndexes = source.vmIndexes;
+            this.sharedIndexes = true;
+        } else {
+            this.vmIndexes = source.vmIndexes.clone();
+            source.overlay.applyTo(this.vmIndexes);
+        }
+        this.assignedCloudlets = source.assignedCloudlets;
+        this.assignmentHash = source.assignmentHash;
+        this.loads = source.loads == null ? null : source.loads.copy();
+        copyCostFrom(source);
+    }
+
+    /**
+     * Copies any solution into an indexed one. Indexed sources are cloned,
+     * other solutions are re-bound cloudlet by cloudlet.
+     */
+    public static IndexedCloudletToVmSolution copyOf(CloudletToVmMappingSolution source, Heuristic heuristic, SchedulingProblem problem) {
+        if (source instanceof IndexedCloudletToVmSolution indexed && indexed.problem == problem) {
+            return new IndexedCloudletToVmSolution(indexed);
+        }
+
+        IndexedCloudletToVmSolution copy = new IndexedCloudletToVmSolution(heuristic, problem);
+        source.getResult().forEach(copy::bindCloudletToVm);
+        return copy;
+    }
+
+    public IndexedCloudletToVmSolution copy() {
+        return new IndexedCloudletToVmSolution(this);
+    }
+
+    public SchedulingProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return the Zobrist hash of the assignment, equal for solutions of the same problem binding the same cloudlets to the same VMs
+     */
+    public long getAssignmentHash() {
+        return assignmentHash;
+    }
+
+    /**
+     * @return the position of the VM the cloudlet at the given position is bound to, or {@link #UNASSIGNED}
+     */
+    public int getVmIndex(int cloudletIndex) {
+        if (overlay != null) {
+            int vmIndex = overlay.get(cloudletIndex);
+            if (vmIndex != AssignmentOverlay.ABSENT) {
+                return vmIndex;
+            }
+        }
+        return vmIndexes[cloudletIndex];
+    }
+
+    public void setVmIndex(int cloudletIndex, int vmIndex) {
+        int previous = getVmIndex(cloudletIndex);
+        if (previous == vmIndex) {
+            return;
+        }
+        if (loads == null && hasCost()) {
+            // The cost came from the cache: starts from the aggregates its evaluation would have built
+            materialize();
+            loads = VmLoads.of(problem, vmIndexes);
+        }
+        if (previous == UNASSIGNED) {
+            assignedCloudlets++;
+        } else if (vmIndex == UNASSIGNED) {
+            assignedCloudlets--;
+        }
+        if (sharedIndexes) {
+            if (overlay == null) {
+                overlay = new AssignmentOverlay();
+            }
+            overlay.put(cloudletIndex, vmIndex);
+            if (overlay.size() > vmIndexes.length / MAX_OVERLAY_FRACTION) {
+                materialize();
+            }
+        } else {
+            vmIndexes[cloudletIndex] = vmIndex;
+        }
+        assignmentHash ^= zobristKey(cloudletIndex, previous) ^ zobristKey(cloudletIndex, vmIndex);
+        if (loads != null) {
+            loads.move(cloudletIndex, previous, vmIndex);
+        }
+        invalidateCost();
+    }
+
+    /**
+     * Gives the solution its own assignment array if it has rebound cloudlets since being copied,
+     * folding the overlay into it. Meant for solutions that survived selection and are about to be copied,
+     * so their copies can share that array.
+     */
+    public void materialize() {
+        if (overlay == null) {
+            return;
+        }
+        int[] own = vmIndexes.clone();
+        overlay.applyTo(own);
+        vmIndexes = own;
+        sharedIndexes = false;
+        overlay = null;
+    }
+
+    /**
+     * Materializes the solution and builds its per-VM aggregates if its cost came from the
+     * {@link FitnessCache}, so the copies about to be made from it are still evaluated incrementally.
+     */
+    public void prepareForCopies() {
+        materialize();
+        if (loads == null) {
+            loads = VmLoads.of(problem, vmIndexes);
+        }
+    }
+
+    @Override
+    public void bindCloudletToVm(Cloudlet cloudlet, Vm vm) {
+        int cloudletIndex = problem.indexOf(cloudlet);
+        if (cloudletIndex < 0) {
+            throw new IllegalArgumentException("Cloudlet %d is not part of the scheduling problem".formatted(cloudlet.getId()));
+        }
+        int vmIndex = problem.indexOf(vm);
+        if (vmIndex < 0) {
+            throw new IllegalArgumentException("Vm %d is not part of the scheduling problem".formatted(vm.getId()));
+        }
+        setVmIndex(cloudletIndex, vmIndex);
+    }
+
+    @Override
+    public double getCost(boolean forceRecompute) {
+        if (forceRecompute) {
+            loads = null;
+            problem.getFitnessCache().remove(assignmentHash);
+        }
+        return super.getCost(forceRecompute);
+    }
+
+    @Override
+    protected double computeCostOfAllVms() {
+        // Incremental costs may differ from a recomputation by a few ulps, so they are neither looked up nor cached
+        if (loads != null) {
+            return loads.cost();
+        }
+
+        FitnessCache cache = problem.getFitnessCache();
+        double cost = cache.get(assignmentHash);
+        if (!Double.isNaN(cost)) {
+            return cost;
+        }
+        materialize();
+        loads = VmLoads.of(problem, vmIndexes);
+        cost = loads.cost();
+        cache.put(assignmentHash, cost);
+        return cost;
+    }
+
+    /**
+     * The key of binding a cloudlet to a VM, a SplitMix64 finalization of the pair
+     * instead of a random table, so large problems need no memory for keys.
+     * Unassigned cloudlets contribute nothing, so an empty solution hashes to 0.
+     */
+    private static long zobristKey(int cloudletIndex, int vmIndex) {
+        if (vmIndex == UNASSIGNED) {
+            return 0;
+        }
+        long z = (((long) cloudletIndex << 32) | vmIndex) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public Map<Cloudlet, Vm> getResult() {
+        if (result == null) {
+            result = new ResultView();
+        }
+        return result;
+    }
+
+    /**
+     * Read-only {@code Map<Cloudlet, Vm>} over {@link #getVmIndex(int)}.
+     */
+    private final class ResultView extends AbstractMap<Cloudlet, Vm> {
+        @Override
+        public Vm get(Object key) {
+            if (!(key instanceof Cloudlet cloudlet)) {
+                return null;
+            }
+            int cloudletIndex = problem.indexOf(cloudlet);
+            if (cloudletIndex < 0) {
+                return null;
+            }
+            int vmIndex = getVmIndex(cloudletIndex);
+            return vmIndex == UNASSIGNED ? null : problem.getVm(vmIndex);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return assignedCloudlets;
+        }
+
+        @Override
+        public Set<Entry<Cloudlet, Vm>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Cloudlet, Vm>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < vmIndexes.length && getVmIndex(from) == UNASSIGNED) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < vmIndexes.length;
+                        }
+
+                        @Override
+                        public Entry<Cloudlet, Vm> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            var entry = new SimpleImmutableEntry<>(problem.getCloudlet(next), problem.getVm(getVmIndex(next)));
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return assignedCloudlets;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package thesis.common;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends the results of simulations to a CSV file that stays open for the whole sweep.
+ *
+ * <p>The file is a plain CSV starting with the column names of its {@link Schema}, so any CSV reader
+ * can load it. The version of the schema is kept next to it, in a {@code <name>}{@value #SCHEMA_SUFFIX} file
+ * holding a single {@value #VERSION_PREFIX} line. Opening a file whose header or version do not match the schema,
+ * such as one written by an older version of a driver, moves both files aside to {@code <name>.<millis>.bak}
+ * first, with a note on {@code System.err}, so rows of different layouts never share a file.</p>
+ *
+ * <p>Rows are buffered and written out once {@code flushRows} of them are pending, or every
+ * {@code flushInterval}, whichever comes first, and on {@link #close()}.
+ * Any number of threads may write rows at the same time; each row is written whole.</p>
+ */
+public final class ResultsSink implements AutoCloseable {
+    public static final int DEFAULT_FLUSH_ROWS = 64;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * Appended to the name of a results file to name the file holding the version of its schema.
+     */
+    public static final String SCHEMA_SUFFIX = ".schema";
+
+    /**
+     * Starts the line of the schema file, followed by the version of the schema.
+     */
+    public static final String VERSION_PREFIX = "schema_version=";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The columns of a results file.
+     *
+     * @param version to be increased whenever the columns, or what they hold, change
+     * @param columns the column names, in the order of the values of each row
+     */
+    public record Schema(int version, List<String> columns) {
+        public Schema {
+            if (version <= 0) {
+                throw new IllegalArgumentException("Schema version must be positive, got %d".formatted(version));
+            }
+            columns = List.copyOf(columns);
+            if (columns.isEmpty()) {
+                throw new IllegalArgumentException("A schema needs at least one column");
+            }
+        }
+
+        /**
+         * @param columns the comma-separated column names
+         */
+        public static Schema of(int version, String columns) {
+            return new Schema(version, List.of(columns.split(",")));
+        }
+
+        private String versionLine() {
+            return VERSION_PREFIX + version;
+        }
+
+        private String headerLine() {
+            return String.join(",", columns);
+        }
+    }
+
+    private final Schema schema;
+    private final int flushRows;
+    private final Writer writer;
+    private final ScheduledExecutorService flusher;
+    private int pendingRows;
+    private boolean closed;
+
+    /**
+     * Opens a sink with {@link #DEFAULT_FLUSH_ROWS} and {@link #DEFAULT_FLUSH_INTERVAL}.
+     */
+    public ResultsSink(String path, Schema schema) {
+        this(Path.of(path), schema, DEFAULT_FLUSH_ROWS, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param flushRows     how many rows may be pending before they are written out
+     * @param flushInterval how long a row may be pending before it is written out
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public ResultsSink(Path path, Schema schema, int flushRows, Duration flushInterval) {
+        if (flushRows <= 0) {
+            throw new IllegalArgumentException("Rows per flush must be positive, got %d".formatted(flushRows));
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive, got %s".formatted(flushInterval));
+        }
+        this.schema = Objects.requireNonNull(schema);
+        this.flushRows = flushRows;
+
+        final Path schemaPath = path.resolveSibling(path.getFileName() + SCHEMA_SUFFIX);
+        try {
+            if (Files.exists(path) && Files.size(path) > 0 && !hasSchema(path, schemaPath, schema)) {
+                final long millis = System.currentTimeMillis();
+                final Path backup = path.resolveSibling("%s.%d.bak".formatted(path.getFileName(), millis));
+                Files.move(path, backup);
+                if (Files.exists(schemaPath)) {
+                    Files.move(schemaPath, schemaPath.resolveSibling("%s.%d.bak".formatted(schemaPath.getFileName(), millis)));
+                }
+                System.err.printf("%s was written with another schema, and was moved to %s%n", path, backup);
+            }
+            final boolean empty = Files.notExists(path) || Files.size(path) == 0;
+            if (empty) {
+                Files.writeString(schemaPath, schema.versionLine() + '\n', StandardCharsets.UTF_8);
+            }
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            if (empty) {
+                writer.write(schema.headerLine() + '\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            final var thread = new Thread(task, "results-flush-" + path.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long millis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushPending, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean hasSchema(Path path, Path schemaPath, Schema schema) throws IOException {
+        if (Files.notExists(schemaPath)) {
+            return false;
+        }
+        try (var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             var schemaReader = Files.newBufferedReader(schemaPath, StandardCharsets.UTF_8)) {
+            return schema.headerLine().equals(reader.readLine()) && schema.versionLine().equals(schemaReader.readLine());
+        }
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Appends a row. Numbers are written in full precision and strings are quoted when needed.
+     *
+     * @param values one value per column of the schema; {@code null} leaves the cell empty
+     * @throws UncheckedIOException if pending rows cannot be written out
+     */
+    public synchronized void write(Object... values) {
+        if (closed) {
+            throw new IllegalStateException("The results sink is closed");
+        }
+        if (values.length != schema.columns().size()) {
+            throw new IllegalArgumentException("Expected %d values, one per column, got %d".formatted(schema.columns().size(), values.length));
+        }
+
+        final var row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                row.append(',');
+            appendCell(row, values[i]);
+        }
+        row.append('\n');
+
+        try {
+            writer.write(row.toString());
+            if (++pendingRows >= flushRows)
+                flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendCell(StringBuilder row, Object value) {
+        if (value == null)
+            return;
+
+        final var text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            row.append(text);
+            return;
+        }
+        row.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private void flush() throws IOException {
+        writer.flush();
+        pendingRows = 0;
+    }
+
+    private synchronized void flushPending() {
+        if (closed || pendingRows == 0)
+            return;
+        try {
+            flush();
+        } catch (IOException e) {
+            // The rows stay buffered, and the next write or close() reports the failure
+            System.err.println(e);
+        }
+    }
+
+    /**
+     * Writes out the pending rows and closes the file.
+     */
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package thesis.common;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cloudlets and VMs a heuristic is mapping in one {@code solve()} call,
+ * together with the position of each of them in its list.
+ * Solutions store VM positions indexed by cloudlet position instead of
+ * a {@code Map<Cloudlet, Vm>}, so the lookups happen here once per problem.
+ *
+ * <p>The attributes the fitness function reads are copied into flat arrays indexed by position
+ * when the problem is created, so evaluating a solution makes no calls to cloudlets,
+ * VMs or their utilization models. Utilization is sampled at that point, which is fine
+ * since the simulation clock does not advance while a heuristic is solving.</p>
+ *
+ * <p>Each problem also owns the {@link FitnessCache} its solutions share, so cached costs
+ * never outlive the snapshot they were computed from.</p>
+ */
+public final class SchedulingProblem {
+    private final List<Cloudlet> cloudletList;
+    private final List<Vm> vmList;
+    private final Map<Cloudlet, Integer> cloudletIndexes;
+    private final Map<Vm, Integer> vmIndexes;
+
+    private final double[] cloudletRam;
+    private final double[] cloudletBw;
+    private final double[] cloudletCpu;
+    private final double[] cloudletPes;
+    private final double[] cloudletLength;
+    private final double[] vmPes;
+    private final double[] vmMips;
+    private final FitnessCache fitnessCache = new FitnessCache();
+
+    private SchedulingProblem(List<Cloudlet> cloudletList, List<Vm> vmList) {
+        this.cloudletList = List.copyOf(cloudletList);
+        this.vmList = List.copyOf(vmList);
+
+        this.cloudletIndexes = new HashMap<>(this.cloudletList.size() * 2);
+        for (int i = 0; i < this.cloudletList.size(); i++) {
+            this.cloudletIndexes.put(this.cloudletList.get(i), i);
+        }
+
+        this.vmIndexes = new HashMap<>(this.vmList.size() * 2);
+        for (int i = 0; i < this.vmList.size(); i++) {
+            this.vmIndexes.put(this.vmList.get(i), i);
+        }
+
+        int cloudlets = this.cloudletList.size();
+        this.cloudletRam = new double[cloudlets];
+        this.cloudletBw = new double[cloudlets];
+        this.cloudletCpu = new double[cloudlets];
+        this.cloudletPes = new double[cloudlets];
+        this.cloudletLength = new double[cloudlets];
+        for (int i = 0; i < cloudlets; i++) {
+            Cloudlet cloudlet = this.cloudletList.get(i);
+            this.cloudletRam[i] = cloudlet.getUtilizationOfRam();
+            this.cloudletBw[i] = cloudlet.getUtilizationOfBw();
+            this.cloudletCpu[i] = cloudlet.getUtilizationOfCpu();
+            this.cloudletPes[i] = cloudlet.getPesNumber();
+            this.cloudletLength[i] = cloudlet.getTotalLength();
+        }
+
+        int vms = this.vmList.size();
+        this.vmPes = new double[vms];
+        this.vmMips = new double[vms];
+        for (int i = 0; i < vms; i++) {
+            Vm vm = this.vmList.get(i);
+            this.vmPes[i] = vm.getPesNumber();
+            this.vmMips[i] = vm.getTotalMipsCapacity();
+        }
+    }
+
+    public static SchedulingProblem of(List<Cloudlet> cloudletList, List<Vm> vmList) {
+        return new SchedulingProblem(cloudletList, vmList);
+    }
+
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
+    }
+
+    public int getCloudletCount() {
+        return cloudletList.size();
+    }
+
+    public int getVmCount() {
+        return vmList.size();
+    }
+
+    public Cloudlet getCloudlet(int cloudletIndex) {
+        return cloudletList.get(cloudletIndex);
+    }
+
+    public Vm getVm(int vmIndex) {
+        return vmList.get(vmIndex);
+    }
+
+    public List<Cloudlet> getCloudletList() {
+        return cloudletList;
+    }
+
+    public List<Vm> getVmList() {
+        return vmList;
+    }
+
+    double getCloudletRam(int cloudletIndex) {
+        return cloudletRam[cloudletIndex];
+    }
+
+    double getCloudletBw(int cloudletIndex) {
+        return cloudletBw[cloudletIndex];
+    }
+
+    double getCloudletCpu(int cloudletIndex) {
+        return cloudletCpu[cloudletIndex];
+    }
+
+    double getCloudletPes(int cloudletIndex) {
+        return cloudletPes[cloudletIndex];
+    }
+
+    double getCloudletLength(int cloudletIndex) {
+        return cloudletLength[cloudletIndex];
+    }
+
+    double getVmPes(int vmIndex) {
+        return vmPes[vmIndex];
+    }
+
+    /**
+     * @return the total MIPS capacity of the VM, across all its PEs
+     */
+    double getVmMips(int vmIndex) {
+        return vmMips[vmIndex];
+    }
+
+    /**
+     * @return the position of the cloudlet in the cloudlet list, or -1 if it is not part of this problem
+     */
+    public int indexOf(Cloudlet cloudlet) {
+        Integer index = cloudletIndexes.get(cloudlet);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the position of the VM in the VM list, or -1 if it is not part of this problem
+     */
+    public int indexOf(Vm vm) {
+        Integer index = vmIndexes.get(vm);
+        return index == null ? -1 : index;
+    }
+}
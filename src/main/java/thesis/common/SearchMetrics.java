@@ -0,0 +1,235 @@
+package thesis.common;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and phase timers of the heuristics, shared by every search in the JVM.
+ *
+ * <p>Metrics are off unless the JVM starts with {@code -D}{@value #PROPERTY}{@code =true}. The switch
+ * is read once into a constant, so when it is off every {@link Counter#add(long)} and
+ * {@link Timer#stop(long)} is an empty method the JIT inlines away, and {@link Timer#start()}
+ * does not read the clock. When it is on, the registry is also published over JMX as
+ * {@value #OBJECT_NAME}, and {@link #snapshot()} reads it from code.</p>
+ *
+ * <p>Names are dot-separated, starting with the heuristic or component that owns the metric,
+ * such as {@code fwa.explode} or {@code fitnessCache.hits}. Phases nest: the {@code evaluate} timer
+ * also counts towards the phase that triggered the evaluation. Metrics of searches that run at the
+ * same time add up, so a breakdown per heuristic needs the searches to run one after the other,
+ * with a {@link #reset()} in between.</p>
+ */
+public final class SearchMetrics {
+    /**
+     * The system property enabling metrics.
+     */
+    public static final String PROPERTY = "thesis.metrics";
+
+    public static final String OBJECT_NAME = "thesis:type=SearchMetrics";
+
+    private static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                // Metrics stay readable through snapshot()
+                System.err.println("Search metrics are not published over JMX: " + e);
+            }
+        }
+    }
+
+    private SearchMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the counter of the given name, created on first use; meant to be kept in a static field
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * @return the timer of the given name, created on first use; meant to be kept in a static field
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * @return the current value of every metric, by name
+     */
+    public static Snapshot snapshot() {
+        final var counters = new TreeMap<String, Long>();
+        COUNTERS.forEach((name, counter) -> counters.put(name, counter.get()));
+        final var timerNanos = new TreeMap<String, Long>();
+        final var timerCounts = new TreeMap<String, Long>();
+        TIMERS.forEach((name, timer) -> {
+            timerNanos.put(name, timer.getNanos());
+            timerCounts.put(name, timer.getCount());
+        });
+        return new Snapshot(counters, timerNanos, timerCounts);
+    }
+
+    /**
+     * Sets every metric back to zero.
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(counter -> counter.value.reset());
+        TIMERS.values().forEach(timer -> {
+            timer.nanos.reset();
+            timer.count.reset();
+        });
+    }
+
+    /**
+     * @param counters    the value of each counter
+     * @param timerNanos  the time each timer measured, in nanoseconds
+     * @param timerCounts how many times each timer was stopped
+     */
+    public record Snapshot(Map<String, Long> counters, Map<String, Long> timerNanos, Map<String, Long> timerCounts) {
+        public Snapshot {
+            counters = Map.copyOf(counters);
+            timerNanos = Map.copyOf(timerNanos);
+            timerCounts = Map.copyOf(timerCounts);
+        }
+
+        /**
+         * @return a line per non-zero metric, sorted by name, with timers in milliseconds
+         */
+        @Override
+        public String toString() {
+            final var text = new StringBuilder();
+            new TreeMap<>(counters).forEach((name, value) -> {
+                if (value != 0)
+                    text.append("%-40s %,d%n".formatted(name, value));
+            });
+            new TreeMap<>(timerNanos).forEach((name, nanos) -> {
+                final long count = timerCounts.getOrDefault(name, 0L);
+                if (count != 0)
+                    text.append("%-40s %,.1f ms in %,d%n".formatted(name, nanos / 1e6, count));
+            });
+            return text.toString();
+        }
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            if (ENABLED)
+                value.increment();
+        }
+
+        public void add(long amount) {
+            if (ENABLED)
+                value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Measures a phase started with {@link #start()} and ended with {@link #stop(long)}:
+     * <pre>{@code
+     * long start = TIMER.start();
+     * ...
+     * TIMER.stop(start);
+     * }</pre>
+     */
+    public static final class Timer {
+        private final String name;
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the time the phase starts at, to be given to {@link #stop(long)}
+         */
+        public long start() {
+            return ENABLED ? System.nanoTime() : 0;
+        }
+
+        public void stop(long start) {
+            if (ENABLED) {
+                nanos.add(System.nanoTime() - start);
+                count.increment();
+            }
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * The JMX view of the registry.
+     */
+    public interface SearchMetricsMXBean {
+        Map<String, Long> getCounters();
+
+        Map<String, Long> getTimerNanos();
+
+        Map<String, Long> getTimerCounts();
+
+        void reset();
+    }
+
+    private static final class Bean implements SearchMetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            return snapshot().counters();
+        }
+
+        @Override
+        public Map<String, Long> getTimerNanos() {
+            return snapshot().timerNanos();
+        }
+
+        @Override
+        public Map<String, Long> getTimerCounts() {
+            return snapshot().timerCounts();
+        }
+
+        @Override
+        public void reset() {
+            SearchMetrics.reset();
+        }
+    }
+}
@@ -15,168 +15,118 @@ import org.cloudsimplus.allocationpolicies.VmAllocationPolicyBestFit;
 import org.cloudsimplus.allocationpolicies.VmAllocationPolicyFirstFit;
 import org.cloudsimplus.allocationpolicies.VmAllocationPolicyRoundRobin;
 import org.cloudsimplus.brokers.DatacenterBrokerHeuristic;
-import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
 import org.cloudsimplus.cloudlets.Cloudlet;
-import org.cloudsimplus.cloudlets.CloudletSimple;
 import org.cloudsimplus.core.CloudSimPlus;
 import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.distributions.ContinuousDistribution;
 import org.cloudsimplus.distributions.UniformDistr;
 import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
 import org.cloudsimplus.hosts.Host;
-import org.cloudsimplus.hosts.HostSimple;
 import org.cloudsimplus.power.models.PowerModelHostSimple;
-import org.cloudsimplus.provisioners.ResourceProvisionerSimple;
-import org.cloudsimplus.resources.Pe;
-import org.cloudsimplus.resources.PeSimple;
-import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
-import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
-import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
-import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
 import org.cloudsimplus.vms.Vm;
 import org.cloudsimplus.vms.VmResourceStats;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Objects;
+import java.util.SplittableRandom;
 
 public class SimulationAbstractFactory {
-
     /**
-     * Defines the power a Host uses, even if it's idle (in Watts).
+     * The system property overriding {@link #BASE_SEED}.
      */
-    private static final double STATIC_POWER = 35;
+    public static final String SEED_PROPERTY = "thesis.seed";
 
     /**
-     * The max power a Host uses (in Watts).
+     * The seed every workload of the drivers is drawn from, as the fixed workload seed was before seeds were
+     * configurable, and the algorithm seed of the first repetition of every configuration. Repetition {@code i}
+     * seeds its algorithms with {@code BASE_SEED + i} on that same workload, so the repetitions of a configuration
+     * measure how the algorithms vary, not how workloads do, and any row of a results file can be run again from its seeds.
      */
-    private static final int MAX_POWER = 50;
+    public static final long BASE_SEED = Long.getLong(SEED_PROPERTY, 12345);
 
     /**
-     * Indicates Host power consumption (in Watts) during startup.
+     * The workload is generated by the first stream split from this seed.
      */
-    private static final double HOST_START_UP_POWER = 5;
+    private final long workloadSeed;
 
     /**
-     * Indicates Host power consumption (in Watts) during shutdown.
+     * Each algorithm draws from its own stream split from this seed (see {@link #streamOf(long, String)}).
      */
-    private static final double HOST_SHUT_DOWN_POWER = 3;
-
-    private static int createdVms = 0, createdCloudlets = 0;
-    private final long seed = new Random().nextLong();
+    private final long seed;
 
     private final int HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE;
 
-    private List<Host> hosts;
-    private List<VmExtended> vms;
-    private List<Cloudlet> cloudlets;
-
-    public SimulationAbstractFactory(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE) {
-        this.HOSTS_TO_CREATE = HOSTS_TO_CREATE;
-        this.VMS_TO_CREATE = VMS_TO_CREATE;
-        this.CLOUDLETS_TO_CREATE = CLOUDLETS_TO_CREATE;
-    }
+    private Workload workload;
 
-    private void initialize() {
-        Random random = new Random(12345);
+    /**
+     * The reporter of factories that were not given one, selected by the {@value SimulationReporter#PROPERTY}
+     * system property, and otherwise {@link SimulationReporter#TABLE}.
+     */
+    private static final SimulationReporter DEFAULT_REPORTER = SimulationReporter.parse(System.getProperty(SimulationReporter.PROPERTY, "table"));
 
-        this.hosts = new ArrayList<Host>();
-        for (int i = 0; i < HOSTS_TO_CREATE; i++)
-            this.hosts.add(createHost(random));
+    /**
+     * The reporter the batch drivers give their factories: the one selected by the {@value SimulationReporter#PROPERTY}
+     * system property, and otherwise {@link SimulationReporter#SUMMARY}, since a sweep never reads the cloudlet table
+     * of each run and {@link BatchRunner} would hold it in memory until the run finishes.
+     */
+    public static final SimulationReporter BATCH_REPORTER =
+            System.getProperty(SimulationReporter.PROPERTY) == null ? SimulationReporter.SUMMARY : DEFAULT_REPORTER;
 
-        this.vms = new ArrayList<>();
-        for (int i = 0; i < VMS_TO_CREATE; i++) {
-            this.vms.add(createVm(random));
-        }
+    private SimulationReporter reporter = DEFAULT_REPORTER;
 
-        this.cloudlets = new ArrayList<>();
-        for (int i = 0; i < CLOUDLETS_TO_CREATE; i++)
-            this.cloudlets.add(createCloudlet(random));
+    /**
+     * Creates a factory with a random seed, which {@link #getSeed()} tells to reproduce its simulations.
+     */
+    public SimulationAbstractFactory(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE) {
+        this(HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE, new SplittableRandom().nextLong());
     }
 
-    static private Host createHost(Random random) {
-        // capacity of each CPU core (in Million Instructions per Second)
-        final long mips = random.nextInt(5000, 15001);
-        // host memory (Megabyte)
-        final int ram = random.nextInt(8*1024, 12*1024);
-        // host storage
-        final long storage = random.nextInt(50000, 200001);
-        // host bandwidth (Megabit/s)
-        final long bw = random.nextInt(4000, 16001);
-//        final long mips = 1500; // vm mips
-//        final long storage = 200000; // vm storage
-//        final int ram = 10*1024; // vm memory
-//        final long bw = 9600; // vm bandwidth
-
-        final var peList = new ArrayList<Pe>();
-        /*
-         * Creates the Host's CPU cores and defines the provisioner
-         * used to allocate each core for requesting VMs.
-         */
-        for (int i = 0; i < 10; i++)
-            peList.add(new PeSimple(mips));
-
-        final var powerModel = new PowerModelHostSimple(MAX_POWER, STATIC_POWER);
-        powerModel
-                .setStartupPower(HOST_START_UP_POWER)
-                .setShutDownPower(HOST_SHUT_DOWN_POWER);
-
-        // host.setId(id)
-        // .setVmScheduler(vmScheduler)
-        // .setPowerModel(powerModel);
-        // host.enableUtilizationStats();
-
-        var host = new HostSimple(ram, bw, storage, peList)
-                .setRamProvisioner(new ResourceProvisionerSimple())
-                .setBwProvisioner(new ResourceProvisionerSimple())
-                .setVmScheduler(new VmSchedulerTimeShared());
-        host.setPowerModel(powerModel);
-        host.enableUtilizationStats();
-        return host;
+    /**
+     * Creates a factory whose workload and algorithms are both seeded with {@code seed}.
+     */
+    public SimulationAbstractFactory(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE, long seed) {
+        this(HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE, seed, seed);
     }
 
-    static private VmExtended createVm(Random random) {
-        final long mips = random.nextInt(500, 1501); // vm mips
-        final long storage = random.nextInt(5000, 12000); // vm storage
-        final int ram = random.nextInt(256, 1024); // vm memory
-        final long bw = random.nextInt(400, 1600); // vm bandwidth
-
-        final int pesNumber = random.nextInt(5, 7);
-
-//        final long mips = 1500; // vm mips
-//        final long storage = 12000; // vm storage
-//        final int ram = 768; // vm memory
-//        final long bw = 1600; // vm bandwidth
-//
-//        final int pesNumber = 3;
-
-        var vm = (VmExtended) new VmExtended(createdVms++, mips, pesNumber)
-                .setRam(ram).setBw(bw).setSize(storage)
-                .setCloudletScheduler(new CloudletSchedulerTimeShared());
-        vm.enableUtilizationStats();
-        return vm;
+    /**
+     * Creates a factory whose algorithms draw from {@code seed} while its workload is drawn from {@code workloadSeed},
+     * so repetitions can run different algorithm streams on the same workload.
+     */
+    public SimulationAbstractFactory(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE, long workloadSeed, long seed) {
+        this.HOSTS_TO_CREATE = HOSTS_TO_CREATE;
+        this.VMS_TO_CREATE = VMS_TO_CREATE;
+        this.CLOUDLETS_TO_CREATE = CLOUDLETS_TO_CREATE;
+        this.workloadSeed = workloadSeed;
+        this.seed = seed;
     }
 
-    static private Cloudlet createCloudlet(Random random) {
-
-        final long length = random.nextInt(1000, 5000); //Length of execution (in MI) (1000,5000)-->before, now (10,1700)
-        final long fileSize = random.nextInt(50, 200); //Size (in bytes) before execution
-        final long outputSize = random.nextInt(50, 200); //Size (in bytes) after execution
-//        final long length = 500; //Length of execution (in MI)
-//        final long fileSize = 500; //Size (in bytes) before execution
-//        final long outputSize = 400; //Size (in bytes) after execution
-//        final int pesNumber = 2;
+    public long getWorkloadSeed() {
+        return workloadSeed;
+    }
 
-        final int pesNumber = random.nextInt(1, 3);
+    /**
+     * @return the seed of the algorithms' random streams
+     */
+    public long getSeed() {
+        return seed;
+    }
 
-        final var utilizationFull = new UtilizationModelFull();
-        final var utilizationDynamic = new UtilizationModelDynamic(0.01);
+    /**
+     * Sets what the simulations created from now on report when they finish.
+     */
+    public SimulationAbstractFactory setReporter(SimulationReporter reporter) {
+        this.reporter = Objects.requireNonNull(reporter);
+        return this;
+    }
 
-        return new CloudletSimple(createdCloudlets++, length, pesNumber)
-                .setFileSize(fileSize)
-                .setOutputSize(outputSize)
-                .setUtilizationModelCpu(utilizationFull)
-                .setUtilizationModelRam(utilizationDynamic)
-                .setUtilizationModelBw(utilizationDynamic);
+    /**
+     * @return the workload every algorithm of this factory runs, drawn on the first call
+     */
+    public Workload getWorkload() {
+        if (workload == null) {
+            workload = Workload.generate(HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE, new SplittableRandom(workloadSeed).split());
+        }
+        return workload;
     }
 
 
@@ -192,89 +142,63 @@ public class SimulationAbstractFactory {
     public static final String PARTICLESWARMOPTIMIZATION_ALGORITHM="PSO";
     public static final String WGOA_ALGORITHM="WGOA";
 
-    public Simulation getAlgorithm(String type) {
-        initialize();
-
-        switch (type) {
-            case GENETIC_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingGeneticAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-            }
-            case CROW_SEARCH_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingCrowSearchAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-            }
-            case FIREWORKS_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingFireworksAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-
-            }
-            case WHALEOPTIMIZATION_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingWhaleOptimizationAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-
-            }
-            case SEQUENTIAL_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingHybridSequentialAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-
-            }
-            case PARALLEL_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingHybridParallelAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-
-            }
-            case FWA_ENCIRCLING_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingHybridFwaEncircleAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-
-            }
-            case WOA_SPARK_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingHybridWoaSparkAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-
-            }
-            case ANTCOLONYOPTIMIZATION_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingAntColonyOptimizationAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
-
-            }
-            case PARTICLESWARMOPTIMIZATION_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingParticleSwarmOptimizationAlgorithm(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
+    /**
+     * Every algorithm {@link #getAlgorithm(String)} can create.
+     */
+    public static final List<String> ALGORITHMS = List.of(
+            GENETIC_ALGORITHM, CROW_SEARCH_ALGORITHM, FIREWORKS_ALGORITHM, WHALEOPTIMIZATION_ALGORITHM,
+            SEQUENTIAL_ALGORITHM, PARALLEL_ALGORITHM, FWA_ENCIRCLING_ALGORITHM, WOA_SPARK_ALGORITHM,
+            ANTCOLONYOPTIMIZATION_ALGORITHM, PARTICLESWARMOPTIMIZATION_ALGORITHM, WGOA_ALGORITHM);
 
-            }
-            case WGOA_ALGORITHM -> {
-                return new Simulation(
-                        new CloudletToVmMappingWGOA(new UniformDistr(0, 1)),
-                        hosts, vms, cloudlets
-                );
+    public Simulation getAlgorithm(String type) {
+        if (!ALGORITHMS.contains(type)) {
+            return null;
+        }
+        final var heuristic = createHeuristic(type, new UniformDistr(0, 1, streamOf(seed, type).nextLong()));
+        final var workload = getWorkload();
+        return new Simulation(heuristic, workload.createHosts(), workload.createVms(), workload.createCloudlets(), reporter);
+    }
 
-            }
-            default -> {
-                return null;
-            }
+    /**
+     * The random stream of an algorithm, split from the seed after the workload stream and the streams of
+     * the algorithms listed before it in {@link #ALGORITHMS}. It only depends on the seed and the algorithm,
+     * so creating algorithms in another order, or only some of them, does not change what each one draws.
+     * The heuristic is seeded from it, and heuristics that search in parallel split their island
+     * and worker streams from that seed in turn.
+     */
+    public static SplittableRandom streamOf(long seed, String algorithm) {
+        final int index = ALGORITHMS.indexOf(algorithm);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown algorithm " + algorithm);
         }
+        final var root = new SplittableRandom(seed);
+        var stream = root.split();
+        for (int i = 0; i <= index; i++)
+            stream = root.split();
+        return stream;
+    }
+
+    /**
+     * Creates one of the heuristics named by the constants above, without a simulation around it.
+     *
+     * @param random the distribution the heuristic draws its random numbers from
+     * @return the heuristic, or null if the type is unknown
+     */
+    public static CloudletToVmMappingHeuristic createHeuristic(String type, ContinuousDistribution random) {
+        return switch (type) {
+            case GENETIC_ALGORITHM -> new CloudletToVmMappingGeneticAlgorithm(random);
+            case CROW_SEARCH_ALGORITHM -> new CloudletToVmMappingCrowSearchAlgorithm(random);
+            case FIREWORKS_ALGORITHM -> new CloudletToVmMappingFireworksAlgorithm(random);
+            case WHALEOPTIMIZATION_ALGORITHM -> new CloudletToVmMappingWhaleOptimizationAlgorithm(random);
+            case SEQUENTIAL_ALGORITHM -> new CloudletToVmMappingHybridSequentialAlgorithm(random);
+            case PARALLEL_ALGORITHM -> new CloudletToVmMappingHybridParallelAlgorithm(random);
+            case FWA_ENCIRCLING_ALGORITHM -> new CloudletToVmMappingHybridFwaEncircleAlgorithm(random);
+            case WOA_SPARK_ALGORITHM -> new CloudletToVmMappingHybridWoaSparkAlgorithm(random);
+            case ANTCOLONYOPTIMIZATION_ALGORITHM -> new CloudletToVmMappingAntColonyOptimizationAlgorithm(random);
+            case PARTICLESWARMOPTIMIZATION_ALGORITHM -> new CloudletToVmMappingParticleSwarmOptimizationAlgorithm(random);
+            case WGOA_ALGORITHM -> new CloudletToVmMappingWGOA(random);
+            default -> null;
+        };
     }
 
 
@@ -288,6 +212,12 @@ public class SimulationAbstractFactory {
         public Simulation(CloudletToVmMappingHeuristic heuristic,
                           List<Host> hosts, List<VmExtended> vms,
                           List<Cloudlet> cloudlets) {
+            this(heuristic, hosts, vms, cloudlets, SimulationReporter.TABLE);
+        }
+
+        public Simulation(CloudletToVmMappingHeuristic heuristic,
+                          List<Host> hosts, List<VmExtended> vms,
+                          List<Cloudlet> cloudlets, SimulationReporter reporter) {
             this.vms = vms;
             this.heuristic = heuristic;
             this.simulation = new CloudSimPlus();
@@ -318,13 +248,7 @@ public class SimulationAbstractFactory {
             } catch (Exception e) {
                 e.printStackTrace();
             }
-            // Prints the list (output shown in console )
-            System.out.println("Simulation Time: " + simulation.clock());
-            System.out.println("Cloudlets Finished: " + broker.getCloudletFinishedList().size());
-            System.out.println("Cloudlets in Progress: " + broker.getCloudletSubmittedList().size());
-
-            final var cloudletFinishedList = broker.getCloudletFinishedList();
-            new CloudletsTableBuilder(cloudletFinishedList).build();
+            reporter.report(this);
 //            printVmsCpuUtilizationAndPowerConsumption(new ArrayList<>(vms));
         }
 
@@ -344,6 +268,18 @@ public class SimulationAbstractFactory {
             return this.broker.getCloudletFinishedList();
         }
 
+        public List<Cloudlet> getSubmittedList() {
+            return this.broker.getCloudletSubmittedList();
+        }
+
+        public CloudletToVmMappingHeuristic getHeuristic() {
+            return heuristic;
+        }
+
+        public double getSimulationTime() {
+            return simulation.clock();
+        }
+
         public double getExecutionTime() {
             var list = this.broker.getCloudletFinishedList();
             return list.get(list.size() - 1).getTotalExecutionTime();
@@ -0,0 +1,87 @@
+package thesis.common;
+
+import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * What a {@link SimulationAbstractFactory.Simulation} reports once it finishes.
+ * Sweeps that only keep the metrics of each run can use {@link #NONE}, and skip formatting
+ * a table of every cloudlet they never read.
+ */
+@FunctionalInterface
+public interface SimulationReporter {
+    /**
+     * The system property selecting the reporter of factories that were not given one,
+     * parsed by {@link #parse(String)}.
+     */
+    String PROPERTY = "thesis.report";
+
+    SimulationReporter NONE = simulation -> {
+    };
+
+    /**
+     * Prints the simulation time and how many cloudlets finished.
+     */
+    SimulationReporter SUMMARY = simulation -> {
+        System.out.println("Simulation Time: " + simulation.getSimulationTime());
+        System.out.println("Cloudlets Finished: " + simulation.getFinishedList().size());
+        System.out.println("Cloudlets in Progress: " + simulation.getSubmittedList().size());
+    };
+
+    /**
+     * Prints the {@link #SUMMARY} and a table of every finished cloudlet.
+     */
+    SimulationReporter TABLE = simulation -> {
+        SUMMARY.report(simulation);
+        new CloudletsTableBuilder(simulation.getFinishedList()).build();
+    };
+
+    /**
+     * The columns written by {@link #cloudletsTo(ResultsSink)}.
+     */
+    ResultsSink.Schema CLOUDLETS_SCHEMA = ResultsSink.Schema.of(1,
+            "run,heuristic,cloudlet,vm,host,length,pes,start_time,finish_time,exec_time");
+
+    void report(SimulationAbstractFactory.Simulation simulation);
+
+    /**
+     * Writes a row per finished cloudlet to a sink of {@link #CLOUDLETS_SCHEMA}.
+     * Runs are numbered from 1 in the order they finish, so the rows of concurrent runs can be told apart.
+     */
+    static SimulationReporter cloudletsTo(ResultsSink sink) {
+        if (!sink.getSchema().equals(CLOUDLETS_SCHEMA)) {
+            throw new IllegalArgumentException("The sink must have the cloudlets schema, got " + sink.getSchema());
+        }
+
+        final var runs = new AtomicInteger();
+        return simulation -> {
+            final int run = runs.incrementAndGet();
+            final var heuristic = simulation.getHeuristic().getClass().getSimpleName();
+            for (final Cloudlet cloudlet : simulation.getFinishedList()) {
+                sink.write(run, heuristic, cloudlet.getId(), cloudlet.getVm().getId(), cloudlet.getVm().getHost().getId(),
+                        cloudlet.getLength(), cloudlet.getPesNumber(),
+                        cloudlet.getStartTime(), cloudlet.getFinishTime(), cloudlet.getTotalExecutionTime());
+            }
+        };
+    }
+
+    /**
+     * @param name {@code none}, {@code summary}, {@code table}, or {@code file:<path>} to write the
+     *             cloudlets of every run to a CSV file, which is closed when the JVM exits
+     */
+    static SimulationReporter parse(String name) {
+        if (name.startsWith("file:")) {
+            final var sink = new ResultsSink(name.substring("file:".length()), CLOUDLETS_SCHEMA);
+            Runtime.getRuntime().addShutdownHook(new Thread(sink::close));
+            return cloudletsTo(sink);
+        }
+        return switch (name) {
+            case "none" -> NONE;
+            case "summary" -> SUMMARY;
+            case "table" -> TABLE;
+            default -> throw new IllegalArgumentException("Unknown reporter " + name + ", expected none, summary, table or file:<path>");
+        };
+    }
+}
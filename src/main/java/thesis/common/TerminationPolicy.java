@@ -0,0 +1,227 @@
+package thesis.common;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * When a heuristic may stop before reaching its maximum number of generations.
+ * A search stops as soon as any of the configured limits is reached:
+ * <ul>
+ *   <li>the best fitness has not improved by more than the relative threshold for some generations;</li>
+ *   <li>the wall-clock budget since {@link #start()} is spent;</li>
+ *   <li>the number of evaluated solutions reaches the evaluation budget.</li>
+ * </ul>
+ * A limit of zero (or a null budget) is disabled. Policies are immutable; each {@code with} method
+ * returns a copy, and each search tracks its progress in the {@link Run} returned by {@link #start()}.
+ *
+ * <p>With a time budget, a heuristic works as an anytime algorithm: it returns the best solution found
+ * when the budget runs out. Limits are checked between generations, so a search may overrun the budget
+ * by about one generation.</p>
+ */
+public final class TerminationPolicy {
+    /**
+     * Only the generation counts hard-coded in each heuristic stop the search.
+     */
+    public static final TerminationPolicy NONE = new TerminationPolicy(0, 0.0, null, 0);
+
+    /**
+     * Stops after 20 generations without a relative improvement above 0.01%.
+     */
+    public static final TerminationPolicy DEFAULT = NONE.withStallGenerations(20).withMinRelativeImprovement(1e-4);
+
+    private final int stallGenerations;
+    private final double minRelativeImprovement;
+    private final Duration timeBudget;
+    private final long maxEvaluations;
+
+    private TerminationPolicy(int stallGenerations, double minRelativeImprovement, Duration timeBudget, long maxEvaluations) {
+        this.stallGenerations = stallGenerations;
+        this.minRelativeImprovement = minRelativeImprovement;
+        this.timeBudget = timeBudget;
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    /**
+     * @param stallGenerations how many generations in a row may go without an improvement, or 0 to never stop on stalls
+     */
+    public TerminationPolicy withStallGenerations(int stallGenerations) {
+        if (stallGenerations < 0) {
+            throw new IllegalArgumentException("Stall generations cannot be negative, got %d".formatted(stallGenerations));
+        }
+        return new TerminationPolicy(stallGenerations, minRelativeImprovement, timeBudget, maxEvaluations);
+    }
+
+    /**
+     * @param minRelativeImprovement how much the best fitness must grow, as a fraction of its last improvement,
+     *                               for a generation to count as an improvement
+     */
+    public TerminationPolicy withMinRelativeImprovement(double minRelativeImprovement) {
+        if (!(minRelativeImprovement >= 0)) {
+            throw new IllegalArgumentException("The minimum relative improvement must be at least 0, got %s".formatted(minRelativeImprovement));
+        }
+        return new TerminationPolicy(stallGenerations, minRelativeImprovement, timeBudget, maxEvaluations);
+    }
+
+    /**
+     * @param timeBudget the wall-clock time a search may take, or null for no limit
+     */
+    public TerminationPolicy withTimeBudget(Duration timeBudget) {
+        if (timeBudget != null && (timeBudget.isNegative() || timeBudget.isZero())) {
+            throw new IllegalArgumentException("The time budget must be positive, got %s".formatted(timeBudget));
+        }
+        return new TerminationPolicy(stallGenerations, minRelativeImprovement, timeBudget, maxEvaluations);
+    }
+
+    /**
+     * @param maxEvaluations how many solutions a search may evaluate, or 0 for no limit
+     */
+    public TerminationPolicy withMaxEvaluations(long maxEvaluations) {
+        if (maxEvaluations < 0) {
+            throw new IllegalArgumentException("The evaluation budget cannot be negative, got %d".formatted(maxEvaluations));
+        }
+        return new TerminationPolicy(stallGenerations, minRelativeImprovement, timeBudget, maxEvaluations);
+    }
+
+    /**
+     * @return a copy whose time budget is at most {@code deadline}, keeping a tighter budget already set
+     */
+    public TerminationPolicy withTimeBudgetAtMost(Duration deadline) {
+        Objects.requireNonNull(deadline);
+        return timeBudget != null && timeBudget.compareTo(deadline) <= 0 ? this : withTimeBudget(deadline);
+    }
+
+    public int getStallGenerations() {
+        return stallGenerations;
+    }
+
+    public double getMinRelativeImprovement() {
+        return minRelativeImprovement;
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+
+    public long getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    /**
+     * Starts tracking a search; the time budget counts from now.
+     */
+    public Run start() {
+        return new Run(solution -> {});
+    }
+
+    /**
+     * Starts tracking a search that reports every improvement of its best solution.
+     *
+     * @param improvementListener called from {@link Run#update(CloudletToVmMappingSolution)}
+     *                            with each best solution fitter than the previous one
+     */
+    public Run start(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        return new Run(Objects.requireNonNull(improvementListener));
+    }
+
+    @Override
+    public String toString() {
+        return "TerminationPolicy[stallGenerations=%d, minRelativeImprovement=%s, timeBudget=%s, maxEvaluations=%d]"
+                .formatted(stallGenerations, minRelativeImprovement, timeBudget, maxEvaluations);
+    }
+
+    /**
+     * The progress of one search against the policy. It is not thread-safe: concurrent searches each start their own.
+     */
+    public final class Run {
+        private final Consumer<? super CloudletToVmMappingSolution> improvementListener;
+        private final long deadline;
+        private int generations;
+        private int stalledGenerations;
+        private long evaluations;
+        private double referenceFitness = Double.NaN;
+        private double publishedFitness = Double.NEGATIVE_INFINITY;
+        private boolean stopped;
+
+        private Run(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+            this.improvementListener = improvementListener;
+            this.deadline = timeBudget == null ? 0 : System.nanoTime() + timeBudget.toNanos();
+        }
+
+        /**
+         * Counts solutions evaluated towards the evaluation budget,
+         * for searches that create them away from the loop calling {@link #update(CloudletToVmMappingSolution)}.
+         */
+        public void countEvaluations(long evaluations) {
+            this.evaluations += evaluations;
+        }
+
+        /**
+         * Records a finished generation that evaluated the given number of solutions.
+         *
+         * @return true if the search should stop
+         */
+        public boolean update(CloudletToVmMappingSolution best, long evaluations) {
+            countEvaluations(evaluations);
+            return update(best);
+        }
+
+        /**
+         * Records a finished generation and publishes its best solution if it improved.
+         *
+         * @param best the best solution found so far
+         * @return true if the search should stop
+         */
+        public boolean update(CloudletToVmMappingSolution best) {
+            generations++;
+            double bestFitness = best.getFitness();
+            if (bestFitness > publishedFitness) {
+                publishedFitness = bestFitness;
+                improvementListener.accept(best);
+            }
+
+            // Compared to the fitness of the last improvement, so a slow creep still counts once it adds up
+            if (Double.isNaN(referenceFitness) || bestFitness - referenceFitness > minRelativeImprovement * Math.abs(referenceFitness)) {
+                referenceFitness = bestFitness;
+                stalledGenerations = 0;
+            } else {
+                stalledGenerations++;
+            }
+
+            stopped = stopped
+                    || (stallGenerations > 0 && stalledGenerations >= stallGenerations)
+                    || (maxEvaluations > 0 && this.evaluations >= maxEvaluations)
+                    || isTimeUp();
+            return stopped;
+        }
+
+        /**
+         * @return true if a limit was reached by the last {@link #update(CloudletToVmMappingSolution)} or the time budget is spent
+         */
+        public boolean isToStop() {
+            if (!stopped && isTimeUp()) {
+                stopped = true;
+            }
+            return stopped;
+        }
+
+        private boolean isTimeUp() {
+            // Compared by difference, since nanoTime may overflow
+            return timeBudget != null && System.nanoTime() - deadline >= 0;
+        }
+
+        public int getGenerations() {
+            return generations;
+        }
+
+        public int getStalledGenerations() {
+            return stalledGenerations;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+    }
+}
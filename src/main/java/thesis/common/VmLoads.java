@@ -0,0 +1,145 @@
+package thesis.common;
+
+/**
+ * Per-VM sums of the cloudlet attributes {@link WeightedCloudletToVmSolution#getVmCost} reads,
+ * plus the running totals its cost is built from.
+ * Moving one cloudlet updates the two VMs involved and the totals,
+ * so re-evaluating a solution after a few moves costs O(moved cloudlets) instead of O(cloudlets).
+ *
+ * <p>The totals are updated in place, so after many moves they may differ from a full
+ * recomputation by a few ulps. {@link IndexedCloudletToVmSolution#getCost(boolean)} with
+ * {@code true} rebuilds them from scratch.</p>
+ */
+final class VmLoads {
+    private final SchedulingProblem problem;
+    private final double[] ram;
+    private final double[] bw;
+    private final double[] cpu;
+    private final double[] pes;
+    private final double[] length;
+    private final int[] cloudlets;
+
+    private int usedVms;
+    private double vmCostSum;
+    private double pesUsageSum;
+    private double timeUsageSum;
+
+    private VmLoads(SchedulingProblem problem) {
+        this.problem = problem;
+        int vms = problem.getVmCount();
+        this.ram = new double[vms];
+        this.bw = new double[vms];
+        this.cpu = new double[vms];
+        this.pes = new double[vms];
+        this.length = new double[vms];
+        this.cloudlets = new int[vms];
+    }
+
+    private VmLoads(VmLoads source) {
+        this.problem = source.problem;
+        this.ram = source.ram.clone();
+        this.bw = source.bw.clone();
+        this.cpu = source.cpu.clone();
+        this.pes = source.pes.clone();
+        this.length = source.length.clone();
+        this.cloudlets = source.cloudlets.clone();
+        this.usedVms = source.usedVms;
+        this.vmCostSum = source.vmCostSum;
+        this.pesUsageSum = source.pesUsageSum;
+        this.timeUsageSum = source.timeUsageSum;
+    }
+
+    /**
+     * Builds the loads of an assignment from scratch.
+     */
+    static VmLoads of(SchedulingProblem problem, int[] vmIndexes) {
+        VmLoads loads = new VmLoads(problem);
+        for (int i = 0; i < vmIndexes.length; i++) {
+            int vm = vmIndexes[i];
+            if (vm != IndexedCloudletToVmSolution.UNASSIGNED) {
+                loads.accumulate(i, vm, 1);
+            }
+        }
+        for (int vm = 0; vm < loads.cloudlets.length; vm++) {
+            loads.attach(vm);
+        }
+        return loads;
+    }
+
+    VmLoads copy() {
+        return new VmLoads(this);
+    }
+
+    /**
+     * Moves a cloudlet between two VMs. Either VM may be {@link IndexedCloudletToVmSolution#UNASSIGNED}.
+     */
+    void move(int cloudletIndex, int fromVm, int toVm) {
+        if (fromVm != IndexedCloudletToVmSolution.UNASSIGNED) {
+            detach(fromVm);
+            accumulate(cloudletIndex, fromVm, -1);
+            attach(fromVm);
+        }
+        if (toVm != IndexedCloudletToVmSolution.UNASSIGNED) {
+            detach(toVm);
+            accumulate(cloudletIndex, toVm, 1);
+            attach(toVm);
+        }
+    }
+
+    /**
+     * @return the same cost as {@link WeightedCloudletToVmSolution#getCost()} for the assignment
+     * these loads were built from, or {@link Double#MAX_VALUE} if no VM is used
+     */
+    double cost() {
+        return CostKernel.cost(usedVms, vmCostSum, pesUsageSum, timeUsageSum);
+    }
+
+    private void accumulate(int cloudletIndex, int vm, int sign) {
+        cloudlets[vm] += sign;
+        if (cloudlets[vm] == 0) {
+            // Reset instead of subtracting, so an empty VM carries no rounding residue
+            ram[vm] = bw[vm] = cpu[vm] = pes[vm] = length[vm] = 0;
+            return;
+        }
+        ram[vm] += sign * problem.getCloudletRam(cloudletIndex);
+        bw[vm] += sign * problem.getCloudletBw(cloudletIndex);
+        cpu[vm] += sign * problem.getCloudletCpu(cloudletIndex);
+        pes[vm] += sign * problem.getCloudletPes(cloudletIndex);
+        length[vm] += sign * problem.getCloudletLength(cloudletIndex);
+    }
+
+    private void attach(int vm) {
+        if (cloudlets[vm] == 0) {
+            return;
+        }
+        usedVms++;
+        pesUsageSum += pesUsage(vm);
+        timeUsageSum += timeUsage(vm);
+        vmCostSum += vmCost(vm);
+    }
+
+    private void detach(int vm) {
+        if (cloudlets[vm] == 0) {
+            return;
+        }
+        usedVms--;
+        pesUsageSum -= pesUsage(vm);
+        timeUsageSum -= timeUsage(vm);
+        vmCostSum -= vmCost(vm);
+        if (usedVms == 0) {
+            pesUsageSum = timeUsageSum = vmCostSum = 0;
+        }
+    }
+
+    private double pesUsage(int vm) {
+        return pes[vm] / problem.getVmPes(vm);
+    }
+
+    private double timeUsage(int vm) {
+        return length[vm] / problem.getVmMips(vm);
+    }
+
+    private double vmCost(int vm) {
+        return CostKernel.vmCost(ram[vm], bw[vm], cpu[vm], pesUsage(vm), timeUsage(vm));
+    }
+}
@@ -11,9 +11,17 @@ import static java.util.stream.Collectors.groupingBy;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 public class WeightedCloudletToVmSolution extends CloudletToVmMappingSolution {
+    /**
+     * Costs computed by every solution, including those answered by a {@link FitnessCache}.
+     */
+    private static final LongAdder EVALUATIONS = new LongAdder();
+    private static final SearchMetrics.Counter EVALUATION_COUNT = SearchMetrics.counter("evaluations");
+    private static final SearchMetrics.Timer EVALUATE = SearchMetrics.timer("evaluate");
+
     private boolean recomputeCost = true;
     private double lastCost;
     private double alpha = (double) 4/5; // weight for makespan
@@ -36,8 +44,6 @@ public class WeightedCloudletToVmSolution extends CloudletToVmMappingSolution {
     //public static final double PES_WEIGHT = 0.2, RAM_WEIGHT = 0.2, BANDWIDTH_WEIGHT = 0.2, THROUGHPUT_WEIGHT = 0.5, EXECUTION_TIME_WEIGHT = 0.5;
 
     public static final double PES_WEIGHT = 0.2, RAM_WEIGHT = 0.2, BANDWIDTH_WEIGHT = 0.1, THROUGHPUT_WEIGHT = 0.25, EXECUTION_TIME_WEIGHT = 0.25;
-    private Map<Vm, Double> pesUsages = new HashMap<Vm, Double>();
-    private Map<Vm, Double> timeUsages = new HashMap<Vm, Double>();
 
     public WeightedCloudletToVmSolution(Heuristic heuristic) {
         super(heuristic);
@@ -47,13 +53,48 @@ public class WeightedCloudletToVmSolution extends CloudletToVmMappingSolution {
         super(solution, 1);
     }
 
+    /**
+     * Marks the cached cost as stale, so the next {@link #getCost()} recomputes it.
+     */
+    protected void invalidateCost() {
+        this.recomputeCost = true;
+    }
+
+    /**
+     * @return whether the solution holds the cost of its current mapping, so {@link #getCost()} will not recompute it
+     */
+    protected boolean hasCost() {
+        return !this.recomputeCost;
+    }
+
+    /**
+     * Reuses the cost of a solution holding the same mapping, avoiding a recomputation.
+     */
+    protected void copyCostFrom(WeightedCloudletToVmSolution source) {
+        this.recomputeCost = source.recomputeCost;
+        this.lastCost = source.lastCost;
+    }
+
     private void recomputeCostIfRequested() {
         if (this.recomputeCost) {
+            final long start = EVALUATE.start();
             this.lastCost = this.computeCostOfAllVms();
+            EVALUATE.stop(start);
             this.recomputeCost = false;
+            EVALUATIONS.increment();
+            EVALUATION_COUNT.increment();
         }
     }
 
+    /**
+     * @return how many costs all solutions in this JVM have computed so far;
+     *         the difference across a {@code solve()} is the number of evaluations it made,
+     *         as long as no other search runs at the same time
+     */
+    public static long getEvaluationCount() {
+        return EVALUATIONS.sum();
+    }
+
     @Override
     public double getCost() {
         this.recomputeCostIfRequested();
@@ -67,28 +108,12 @@ public class WeightedCloudletToVmSolution extends CloudletToVmMappingSolution {
         return this.getCost();
     }
 
-    private double computeCostOfAllVms() {
-        var result = this.getResult().entrySet().stream().collect(Collectors.groupingBy(Map.Entry::getValue));
-        var costSum = result.entrySet().stream().mapToDouble(this::getVmCost).sum();
-        // System.out.println(this.pesUsages.size());
-        var standardizePesCost = this.pesUsages.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .map(cost -> cost / this.pesUsages.values().stream()
-                        .mapToDouble(Double::doubleValue).average().getAsDouble())
-                .average().orElse(0.0);
-        // standardizePesCost = standardizePesCost.getAsDouble();
-        // System.out.println("standard pes cost " + standardizePesCost);
-        var standardizeTimeCost = this.timeUsages.values().stream()
-                .mapToDouble(Double::doubleValue)
-                .map(cost -> cost / this.pesUsages.values().stream().mapToDouble(Double::doubleValue).average().getAsDouble()).average().orElse(0.0);
-        // System.out.println(standardizePesCost + " " + standardizeTimeCost);
-
-        var totalCost = costSum + standardizePesCost * PES_WEIGHT + standardizeTimeCost * EXECUTION_TIME_WEIGHT;
-
-        // System.out.println(totalCost);
-        // System.out.println("Total Cost: " + totalCost);
-        // System.out.println("result size: " + result.size());
-        return result.size() == 0 ? Double.MAX_VALUE : totalCost / result.size();
+    /**
+     * Computes the cost of the current mapping with {@link FitnessEvaluator},
+     * which keeps no state in the solution.
+     */
+    protected double computeCostOfAllVms() {
+        return FitnessEvaluator.cost(this.getResult());
     }
 
     @Override
@@ -115,9 +140,6 @@ public class WeightedCloudletToVmSolution extends CloudletToVmMappingSolution {
         cost += bandwidthUtilization * BANDWIDTH_WEIGHT;
         cost += cpuUtilization * THROUGHPUT_WEIGHT;
 
-        this.pesUsages.put(vm, relativePesCount);
-        this.timeUsages.put(vm, relativeTotalTime);
-
         cost += relativePesCount * PES_WEIGHT;
         cost += relativeTotalTime * EXECUTION_TIME_WEIGHT;
 
@@ -0,0 +1,180 @@
+package thesis.common;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.power.models.PowerModelHostSimple;
+import org.cloudsimplus.provisioners.ResourceProvisionerSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
+import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
+import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * The hosts, VMs and cloudlets of a simulation, drawn once and kept as plain values.
+ * Each {@code create} method builds fresh CloudSim entities from them, so every algorithm gets the same
+ * world in entities no other simulation has touched, without drawing it again.
+ * VMs and cloudlets are numbered from 0 in every copy: heuristics use the id of a VM as its position
+ * in the VM list. Hosts get their ids from the datacenter.
+ */
+public final class Workload {
+    /**
+     * Defines the power a Host uses, even if it's idle (in Watts).
+     */
+    private static final double STATIC_POWER = 35;
+
+    /**
+     * The max power a Host uses (in Watts).
+     */
+    private static final int MAX_POWER = 50;
+
+    /**
+     * Indicates Host power consumption (in Watts) during startup.
+     */
+    private static final double HOST_START_UP_POWER = 5;
+
+    /**
+     * Indicates Host power consumption (in Watts) during shutdown.
+     */
+    private static final double HOST_SHUT_DOWN_POWER = 3;
+
+    private static final int HOST_PES = 10;
+
+    private record HostSpec(long mips, int ram, long storage, long bw) {
+    }
+
+    private record VmSpec(long mips, long storage, int ram, long bw, int pesNumber) {
+    }
+
+    private record CloudletSpec(long length, long fileSize, long outputSize, int pesNumber) {
+    }
+
+    private final List<HostSpec> hosts;
+    private final List<VmSpec> vms;
+    private final List<CloudletSpec> cloudlets;
+
+    private Workload(List<HostSpec> hosts, List<VmSpec> vms, List<CloudletSpec> cloudlets) {
+        this.hosts = List.copyOf(hosts);
+        this.vms = List.copyOf(vms);
+        this.cloudlets = List.copyOf(cloudlets);
+    }
+
+    /**
+     * Draws a workload, hosts first, then VMs, then cloudlets.
+     */
+    public static Workload generate(int hostCount, int vmCount, int cloudletCount, RandomGenerator random) {
+        if (hostCount < 0 || vmCount < 0 || cloudletCount < 0) {
+            throw new IllegalArgumentException("Entity counts cannot be negative, got %d hosts, %d VMs and %d cloudlets"
+                    .formatted(hostCount, vmCount, cloudletCount));
+        }
+
+        final var hosts = new ArrayList<HostSpec>(hostCount);
+        for (int i = 0; i < hostCount; i++) {
+            // capacity of each CPU core (in Million Instructions per Second)
+            final long mips = random.nextInt(5000, 15001);
+            // host memory (Megabyte)
+            final int ram = random.nextInt(8*1024, 12*1024);
+            // host storage
+            final long storage = random.nextInt(50000, 200001);
+            // host bandwidth (Megabit/s)
+            final long bw = random.nextInt(4000, 16001);
+            hosts.add(new HostSpec(mips, ram, storage, bw));
+        }
+
+        final var vms = new ArrayList<VmSpec>(vmCount);
+        for (int i = 0; i < vmCount; i++) {
+            final long mips = random.nextInt(500, 1501); // vm mips
+            final long storage = random.nextInt(5000, 12000); // vm storage
+            final int ram = random.nextInt(256, 1024); // vm memory
+            final long bw = random.nextInt(400, 1600); // vm bandwidth
+            final int pesNumber = random.nextInt(5, 7);
+            vms.add(new VmSpec(mips, storage, ram, bw, pesNumber));
+        }
+
+        final var cloudlets = new ArrayList<CloudletSpec>(cloudletCount);
+        for (int i = 0; i < cloudletCount; i++) {
+            final long length = random.nextInt(1000, 5000); //Length of execution (in MI)
+            final long fileSize = random.nextInt(50, 200); //Size (in bytes) before execution
+            final long outputSize = random.nextInt(50, 200); //Size (in bytes) after execution
+            final int pesNumber = random.nextInt(1, 3);
+            cloudlets.add(new CloudletSpec(length, fileSize, outputSize, pesNumber));
+        }
+
+        return new Workload(hosts, vms, cloudlets);
+    }
+
+    public int getHostCount() {
+        return hosts.size();
+    }
+
+    public int getVmCount() {
+        return vms.size();
+    }
+
+    public int getCloudletCount() {
+        return cloudlets.size();
+    }
+
+    public List<Host> createHosts() {
+        final var list = new ArrayList<Host>(hosts.size());
+        for (final var spec : hosts) {
+            /*
+             * Creates the Host's CPU cores and defines the provisioner
+             * used to allocate each core for requesting VMs.
+             */
+            final var peList = new ArrayList<Pe>(HOST_PES);
+            for (int i = 0; i < HOST_PES; i++)
+                peList.add(new PeSimple(spec.mips()));
+
+            final var powerModel = new PowerModelHostSimple(MAX_POWER, STATIC_POWER);
+            powerModel
+                    .setStartupPower(HOST_START_UP_POWER)
+                    .setShutDownPower(HOST_SHUT_DOWN_POWER);
+
+            final var host = new HostSimple(spec.ram(), spec.bw(), spec.storage(), peList)
+                    .setRamProvisioner(new ResourceProvisionerSimple())
+                    .setBwProvisioner(new ResourceProvisionerSimple())
+                    .setVmScheduler(new VmSchedulerTimeShared());
+            host.setPowerModel(powerModel);
+            host.enableUtilizationStats();
+            list.add(host);
+        }
+        return list;
+    }
+
+    public List<VmExtended> createVms() {
+        final var list = new ArrayList<VmExtended>(vms.size());
+        for (int id = 0; id < vms.size(); id++) {
+            final var spec = vms.get(id);
+            final var vm = (VmExtended) new VmExtended(id, spec.mips(), spec.pesNumber())
+                    .setRam(spec.ram()).setBw(spec.bw()).setSize(spec.storage())
+                    .setCloudletScheduler(new CloudletSchedulerTimeShared());
+            vm.enableUtilizationStats();
+            list.add(vm);
+        }
+        return list;
+    }
+
+    public List<Cloudlet> createCloudlets() {
+        final var list = new ArrayList<Cloudlet>(cloudlets.size());
+        for (int id = 0; id < cloudlets.size(); id++) {
+            final var spec = cloudlets.get(id);
+            final var utilizationFull = new UtilizationModelFull();
+            final var utilizationDynamic = new UtilizationModelDynamic(0.01);
+            list.add(new CloudletSimple(id, spec.length(), spec.pesNumber())
+                    .setFileSize(spec.fileSize())
+                    .setOutputSize(spec.outputSize())
+                    .setUtilizationModelCpu(utilizationFull)
+                    .setUtilizationModelRam(utilizationDynamic)
+                    .setUtilizationModelBw(utilizationDynamic));
+        }
+        return list;
+    }
+}
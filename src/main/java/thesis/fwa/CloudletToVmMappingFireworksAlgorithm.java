@@ -5,22 +5,24 @@ import org.cloudsimplus.distributions.ContinuousDistribution;
 import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
 import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
 import org.cloudsimplus.heuristics.Heuristic;
-import org.cloudsimplus.heuristics.HeuristicSolution;
 import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import thesis.common.WeightedCloudletToVmSolution;
+import thesis.common.FitnessEvaluator;
+import thesis.common.Fittest;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.TerminationPolicy;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.OptionalDouble;
-import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
 
 public class CloudletToVmMappingFireworksAlgorithm implements CloudletToVmMappingHeuristic {
     public static final int POPULATION_SIZE = 50;
@@ -37,7 +39,15 @@ public class CloudletToVmMappingFireworksAlgorithm implements CloudletToVmMappin
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
+    private FireworksExplosion explosion;
+    private FireworksSelection selection;
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingFireworksAlgorithm.class.getSimpleName());
+    private static final SearchMetrics.Timer UPDATE_BEST = SearchMetrics.timer("fwa.updateBest");
 
     public CloudletToVmMappingFireworksAlgorithm(ContinuousDistribution random) {
         this.random = random;
@@ -65,12 +75,14 @@ public class CloudletToVmMappingFireworksAlgorithm implements CloudletToVmMappin
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -103,6 +115,13 @@ public class CloudletToVmMappingFireworksAlgorithm implements CloudletToVmMappin
 //        return vmList.get(idx);
 //    }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -133,13 +152,40 @@ public class CloudletToVmMappingFireworksAlgorithm implements CloudletToVmMappin
 
     @Override
     public boolean isToStopSearch() {
-        // TODO Auto-generated method stub
-        // Should we stop the search
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingFireworksAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
+    }
+
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingFireworksAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingFireworksAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
     }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         cloudletList.forEach(cloudlet -> solution.bindCloudletToVm(cloudlet, getRandomVm()));
         return solution;
     }
@@ -197,319 +243,65 @@ public class CloudletToVmMappingFireworksAlgorithm implements CloudletToVmMappin
         return population;
     }
 
-    private int calculateNumSparks(CloudletToVmMappingSolution firework, double maxFitness, List<CloudletToVmMappingSolution> population) {
-        // Calculate the summation of (maxFitness - fitness of each solution) + epsilon
-        double fitnessDifferenceSum = 0.0;
-        for (CloudletToVmMappingSolution solution : population) {
-            fitnessDifferenceSum += (maxFitness - solution.getFitness());
-        }
-
-        // Calculate Si using eqn 2
-        double si = m * ((maxFitness - firework.getFitness() + EPSILON) / (fitnessDifferenceSum + EPSILON));
-
-        // Apply bounds and rounding using eqn 3
-        if (si < a * m) {
-            si = Math.round(a * m);
-        } else if (si > b * m) {
-            si = Math.round(b * m);
-        } else {
-            si = Math.round(si);
-        }
-
-        return (int) si;
-    }
-
-    private double calculateAmplitude(CloudletToVmMappingSolution firework, double minFitness, List<CloudletToVmMappingSolution> population) {
-        // Calculate the summation of (fitness of each solution - minFitness) + epsilon
-        double fitnessDifferenceSum = 0.0;
-        for (CloudletToVmMappingSolution solution : population) {
-            fitnessDifferenceSum += (solution.getFitness() - minFitness);
-        }
-
-        // Calculate Ai using eqn 4
-        double ai = A * ((firework.getFitness() - minFitness + EPSILON) / (fitnessDifferenceSum + EPSILON));
-
-        return ai;
-    }
-
-    private CloudletToVmMappingSolution createSpark(CloudletToVmMappingSolution firework, double amplitude) {
-        // Algorithm 1 part 1: Initialize spark's location = firework's location
-        CloudletToVmMappingSolution spark = new WeightedCloudletToVmSolution(this);
-        for (Cloudlet cloudlet : cloudletList) {
-            Vm vm = firework.getResult().get(cloudlet);
-            spark.bindCloudletToVm(cloudlet, vm);
-        }
-        mutateSpark(spark, amplitude);
-        return spark;
-    }
-
-    private void mutateSpark(CloudletToVmMappingSolution spark, double amplitude) {
-        // Algorithm 1 part 2:
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the displacement h
-        double h = amplitude * (random.sample() * 2 - 1);
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Calculate new Vm id with displacement h
-            int newVmId = originalVmId + (int) h;
-
-            // Ensure newVmId is within bounds and different from originalVmId
-            newVmId = Math.floorMod(newVmId, vmList.size());
-            if (newVmId == originalVmId) {
-                newVmId = (newVmId + 1) % vmList.size();
-            }
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-    
-/*   
-    //Use of  Load Distribution
-    private void mutateSpark(CloudletToVmMappingSolution spark, double amplitude) {
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the displacement h
-        double h = amplitude * (random.sample() * 2 - 1);
-
-        // Initialize the load tracking map for VMs
-        Map<Integer, Integer> vmLoad = new HashMap<>();
-        for (Vm vm : vmList) {
-            vmLoad.put((int) vm.getId(), 0);
-        }
-        for (Cloudlet cloudlet : cloudletList) {
-            int vmId = (int) spark.getResult().get(cloudlet).getId();
-            vmLoad.put(vmId, vmLoad.getOrDefault(vmId, 0) + 1);
-        }
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Find a new VM with the least load
-            int newVmId = originalVmId + (int) h;
-         
-            int minLoad = Integer.MAX_VALUE;
-            for (Vm vm : vmList) {
-                int vmId = (int) vm.getId();
-                if (vmLoad.get(vmId) < minLoad && vmId != originalVmId) {
-                    newVmId = vmId;
-                    minLoad = vmLoad.get(vmId);
-                }
-            }
-
-            // Update the load tracking
-            vmLoad.put(newVmId, vmLoad.get(newVmId) + 1);
-            vmLoad.put(originalVmId, vmLoad.get(originalVmId) - 1);
-            newVmId = Math.floorMod(newVmId, vmList.size());
-
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-*/
-
-    private CloudletToVmMappingSolution createGaussianSpark(CloudletToVmMappingSolution firework) {
-        // Algorithm 2 part 1: Initialize Spark's location= firework's location
-        CloudletToVmMappingSolution spark = new WeightedCloudletToVmSolution(this);
-        for (Cloudlet cloudlet : cloudletList) {
-            Vm vm = firework.getResult().get(cloudlet);
-            spark.bindCloudletToVm(cloudlet, vm);
-        }
-        mutateGaussianSpark(spark);
-        return spark;
-    }
-/*
-   // Load Distribution    
-    private void mutateGaussianSpark(CloudletToVmMappingSolution spark) {
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the Gaussian coefficient g
-        double g = new Random().nextGaussian();
-
-        // Initialize the load tracking map for VMs
-        Map<Integer, Integer> vmLoad = new HashMap<>();
-        for (Vm vm : vmList) {
-            vmLoad.put((int) vm.getId(), 0);
-        }
-        for (Cloudlet cloudlet : cloudletList) {
-            int vmId = (int) spark.getResult().get(cloudlet).getId();
-            vmLoad.put(vmId, vmLoad.getOrDefault(vmId, 0) + 1);
-        }
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Find a new VM with the least load
-            int newVmId = (int) (originalVmId * g);
-            int minLoad = Integer.MAX_VALUE;
-            for (Vm vm : vmList) {
-                int vmId = (int) vm.getId();
-                if (vmLoad.get(vmId) < minLoad && vmId != originalVmId) {
-                    newVmId = vmId;
-                    minLoad = vmLoad.get(vmId);
-                }
-            }
-
-            // Update the load tracking
-            vmLoad.put(newVmId, vmLoad.get(newVmId) + 1);
-            vmLoad.put(originalVmId, vmLoad.get(originalVmId) - 1);
-            newVmId = Math.floorMod(newVmId, vmList.size());
-
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-*/
-
-    private void mutateGaussianSpark(CloudletToVmMappingSolution spark) {
-        // Algorithm 2 part 2:
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the Gaussian coefficient g
-        double g = new Random().nextGaussian();
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Calculate new Vm id with Gaussian coefficient g
-            int newVmId = (int) (originalVmId * g);
-            // Ensure newVmId is within bounds and different from originalVmId
-            newVmId = Math.floorMod(newVmId, vmList.size());
-            if (newVmId == originalVmId) {
-                newVmId = (newVmId + 1) % vmList.size();
-            }
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-
     private void updateBestSolution(List<CloudletToVmMappingSolution> population) {
-        // Sort in descending order of fitness
-        population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-        if (population.get(0).getFitness() > bestSolutionSoFar.getFitness()) {
-            // The best fitness is the first member of the population
-            bestSolutionSoFar = population.get(0);
+        FitnessEvaluator.evaluate(population);
+        // A linear scan, since the population holds every spark of the generation and only its best member is needed
+        CloudletToVmMappingSolution fittest = Fittest.of(population);
+        if (fittest.getFitness() > bestSolutionSoFar.getFitness()) {
+            bestSolutionSoFar = fittest;
         }
     }
 
-    private List<CloudletToVmMappingSolution> selectNewPopulation(List<CloudletToVmMappingSolution> population) {
-        List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>();
-        newPopulation.add(bestSolutionSoFar);
-
-        List<Double> distances = new ArrayList<>();
-        double totalDistance = 0;
-        for (CloudletToVmMappingSolution solution : population) {
-            double distance = calculateDistance(solution);
-            distances.add(distance);
-            totalDistance += distance;
-        }
-
-        List<Double> selectionProbabilities = new ArrayList<>();
-        for (double distance : distances) {
-            selectionProbabilities.add(distance / totalDistance);
-        }
-
-        Random rand = new Random();
-        for (int i = 1; i < POPULATION_SIZE; i++) {
-            double r = rand.nextDouble();
-            double cumulativeProbability = 0;
-            for (int j = 0; j < population.size(); j++) {
-                cumulativeProbability += selectionProbabilities.get(j);
-                if (r <= cumulativeProbability) {
-                    newPopulation.add(population.get(j));
-                    break;
-                }
-            }
-        }
-
-        return newPopulation;
+    @Override
+    public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
     }
 
-    private double calculateDistance(CloudletToVmMappingSolution solution) {
-        double distance = 0;
-        for (Cloudlet cloudlet : cloudletList) {
-            //int idx = cloudletList.indexOf(cloudlet);
-            Vm vm1 = solution.getResult().get(cloudlet);
-            Vm vm2 = bestSolutionSoFar.getResult().get(cloudlet);
-            distance += Math.pow(vm1.getId() - vm2.getId(), 2);
-        }
-        return Math.sqrt(distance);
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
     }
 
-    @Override
-    public CloudletToVmMappingSolution solve() {
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
 
         long startTime = System.currentTimeMillis();
+        problem = SchedulingProblem.of(cloudletList, vmList);
+        termination = policy.start(improvementListener);
+        telemetry.start();
+        explosion = new FireworksExplosion(this, problem, A, m, a, b, EPSILON);
+        selection = new FireworksSelection(problem);
         List<CloudletToVmMappingSolution> population = generateInitialPopulation();
         population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
         bestSolutionSoFar = population.get(0);
 
         int iterations = 0;
-        while (iterations < MAX_ITERATIONS) {
-            OptionalDouble maxFitnessOptional = population.stream()
-                    .mapToDouble(HeuristicSolution::getFitness)
-                    .max();
-
-            double maxFitness = maxFitnessOptional.isPresent() ? maxFitnessOptional.getAsDouble() : 0.0; // Or any default value
-
-            OptionalDouble minFitnessOptional = population.stream()
-                    .mapToDouble(HeuristicSolution::getFitness)
-                    .min();
-
-            double minFitness = minFitnessOptional.isPresent() ? minFitnessOptional.getAsDouble() : 0.0; // Or any default value
+        while (iterations < MAX_ITERATIONS && !isToStopSearch()) {
+            FireworksExplosion.Generation generation = explosion.generation(population);
 //        	  if (iterations % 20 == 0) {
-//              	logger.debug("[#{}] : {}", iterations, maxFitness);
-//              	logger.debug("[#{}] : {}", iterations, minFitness);
+//              	logger.debug("[#{}] : {}", iterations, generation.getMaxFitness());
+//              	logger.debug("[#{}] : {}", iterations, generation.getMinFitness());
 //              }
-            List<CloudletToVmMappingSolution> sparks = new ArrayList<>();
-            for (CloudletToVmMappingSolution firework : population) {
-                int numSparks = calculateNumSparks(firework, maxFitness, population);
-                double amplitude = calculateAmplitude(firework, minFitness, population);
-
-                for (int i = 0; i < numSparks; i++) {
-                    sparks.add(createSpark(firework, amplitude));
-                }
-            }
+            // One random stream per firework, plus one for the Gaussian sparks, seeded from the configured distribution
+            SplittableRandom rng = new SplittableRandom(Double.doubleToLongBits(random.sample()));
+            List<CloudletToVmMappingSolution> sparks = explosion.explode(population, generation, rng);
 
             for (int i = 0; i < (int) (population.size() * 0.1); i++) {
-                sparks.add(createGaussianSpark(population.get((int) (population.size() * random.sample()))));
+                sparks.add(explosion.createGaussianSpark(population.get((int) (population.size() * random.sample())), rng));
             }
 
             population.addAll(sparks);
+            final long updateStart = UPDATE_BEST.start();
             updateBestSolution(population);
-            population = selectNewPopulation(population);
+            UPDATE_BEST.stop(updateStart);
+            termination.update(bestSolutionSoFar, sparks.size());
+            population = selection.select(population, bestSolutionSoFar, POPULATION_SIZE, rng);
+            FireworksSelection.countKeptSparks(population, sparks);
+            telemetry.record(termination.getGenerations(), population, termination.getEvaluations());
 
-            if (iterations % 50 == 0) {
+            if (iterations % 50 == 0 && logger.isDebugEnabled()) {
                 logger.debug("[#{}] : {}", iterations, bestSolutionSoFar.getResult());
                 logger.debug("[#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
             }
@@ -0,0 +1,60 @@
+package thesis.fwa;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws the distinct cloudlet positions a spark mutates, using a partial Fisher–Yates shuffle
+ * over a per-thread {@code int[]}. Drawing z positions costs O(z) and allocates nothing,
+ * instead of boxing every position and shuffling the whole range for each spark.
+ *
+ * <p>Each draw starts by undoing the swaps of the previous one, which also costs O(z), so the buffer
+ * is back to the identity and the positions drawn depend only on {@code rng}, not on which
+ * thread happened to sample before.</p>
+ */
+final class DimensionSampler {
+    private static final ThreadLocal<DimensionSampler> SAMPLER = ThreadLocal.withInitial(DimensionSampler::new);
+
+    private int[] positions = new int[0];
+    private int[] swaps = new int[0];
+    private int swapCount;
+
+    private DimensionSampler() {
+    }
+
+    /**
+     * Draws {@code count} distinct positions out of {@code [0, dimensions)}.
+     *
+     * @return a buffer owned by the calling thread whose first {@code count} slots hold the positions,
+     *         valid until the thread samples again
+     */
+    static int[] sample(int dimensions, int count, SplittableRandom rng) {
+        return SAMPLER.get().draw(dimensions, count, rng);
+    }
+
+    private int[] draw(int dimensions, int count, SplittableRandom rng) {
+        if (positions.length != dimensions) {
+            positions = new int[dimensions];
+            swaps = new int[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                positions[i] = i;
+            }
+        } else {
+            for (int i = swapCount - 1; i >= 0; i--) {
+                int j = swaps[i];
+                int position = positions[j];
+                positions[j] = positions[i];
+                positions[i] = position;
+            }
+        }
+
+        swapCount = count;
+        for (int i = 0; i < count; i++) {
+            int j = i + rng.nextInt(dimensions - i);
+            swaps[i] = j;
+            int position = positions[j];
+            positions[j] = positions[i];
+            positions[i] = position;
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,225 @@
+package thesis.fwa;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.heuristics.Heuristic;
+
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The explosion step of the Fireworks Algorithm, shared by the FWA and the hybrids built on it.
+ *
+ * <p>The number of sparks (eqns 2 and 3) and the amplitude (eqn 4) of a firework are normalized by
+ * sums over the whole population. {@link #generation(List)} computes those sums once per generation,
+ * so sizing every firework is linear in the population size instead of quadratic.</p>
+ */
+public final class FireworksExplosion {
+    private static final SearchMetrics.Timer EXPLODE = SearchMetrics.timer("fireworks.explode");
+    private static final SearchMetrics.Counter SPARKS_GENERATED = SearchMetrics.counter("fireworks.sparks.generated");
+
+    private final Heuristic<CloudletToVmMappingSolution> heuristic;
+    private final SchedulingProblem problem;
+    private final int maxAmplitude;
+    private final int totalSparks;
+    private final double a;
+    private final double b;
+    private final double epsilon;
+    private final boolean parallel;
+
+    /**
+     * @param maxAmplitude the explosion amplitude constant A
+     * @param totalSparks  the spark count constant m
+     * @param a            lower bound of the spark count, as a fraction of m
+     * @param b            upper bound of the spark count, as a fraction of m
+     * @param epsilon      avoids divisions by zero when every firework has the same fitness
+     */
+    public FireworksExplosion(Heuristic<CloudletToVmMappingSolution> heuristic, SchedulingProblem problem,
+                              int maxAmplitude, int totalSparks, double a, double b, double epsilon) {
+        this(heuristic, problem, maxAmplitude, totalSparks, a, b, epsilon, true);
+    }
+
+    private FireworksExplosion(Heuristic<CloudletToVmMappingSolution> heuristic, SchedulingProblem problem,
+                               int maxAmplitude, int totalSparks, double a, double b, double epsilon, boolean parallel) {
+        this.heuristic = heuristic;
+        this.problem = problem;
+        this.maxAmplitude = maxAmplitude;
+        this.totalSparks = totalSparks;
+        this.a = a;
+        this.b = b;
+        this.epsilon = epsilon;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return an explosion with the same constants that creates every spark on the calling thread,
+     * for searches that already run one per core
+     */
+    public FireworksExplosion sequential() {
+        return new FireworksExplosion(heuristic, problem, maxAmplitude, totalSparks, a, b, epsilon, false);
+    }
+
+    /**
+     * Computes the fitness statistics of a population in two passes over it.
+     */
+    public Generation generation(List<? extends CloudletToVmMappingSolution> population) {
+        if (population.isEmpty()) {
+            return new Generation(0.0, 0.0, 0.0, 0.0);
+        }
+
+        double maxFitness = Double.NEGATIVE_INFINITY;
+        double minFitness = Double.POSITIVE_INFINITY;
+        for (CloudletToVmMappingSolution solution : population) {
+            double fitness = solution.getFitness();
+            maxFitness = Math.max(maxFitness, fitness);
+            minFitness = Math.min(minFitness, fitness);
+        }
+
+        // Accumulated like the per-firework loops did, so each firework gets exactly the same sizes
+        double belowMaxSum = 0.0;
+        double aboveMinSum = 0.0;
+        for (CloudletToVmMappingSolution solution : population) {
+            belowMaxSum += (maxFitness - solution.getFitness());
+            aboveMinSum += (solution.getFitness() - minFitness);
+        }
+        return new Generation(maxFitness, minFitness, belowMaxSum, aboveMinSum);
+    }
+
+    /**
+     * Creates and evaluates the sparks of every firework of the generation, in parallel unless the explosion is {@link #sequential()}.
+     * Each firework gets its own stream split from {@code rng} in population order,
+     * and its sparks are appended in that same order, so the result does not depend on thread scheduling.
+     */
+    public List<CloudletToVmMappingSolution> explode(List<? extends CloudletToVmMappingSolution> population, Generation generation, SplittableRandom rng) {
+        final long start = EXPLODE.start();
+        SplittableRandom[] fireworkRngs = new SplittableRandom[population.size()];
+        for (int i = 0; i < fireworkRngs.length; i++) {
+            fireworkRngs[i] = rng.split();
+            // Done up front since a firework selected twice would otherwise be prepared by two threads
+            if (population.get(i) instanceof IndexedCloudletToVmSolution indexed) {
+                indexed.prepareForCopies();
+            }
+        }
+
+        IntStream fireworks = IntStream.range(0, population.size());
+        List<List<CloudletToVmMappingSolution>> sparksByFirework = (parallel ? fireworks.parallel() : fireworks)
+                .mapToObj(i -> {
+                    CloudletToVmMappingSolution firework = population.get(i);
+                    int numSparks = generation.numSparks(firework);
+                    double amplitude = generation.amplitude(firework);
+
+                    List<CloudletToVmMappingSolution> fireworkSparks = new ArrayList<>(numSparks);
+                    for (int j = 0; j < numSparks; j++) {
+                        CloudletToVmMappingSolution spark = createSpark(firework, amplitude, fireworkRngs[i]);
+                        spark.getCost();
+                        fireworkSparks.add(spark);
+                    }
+                    return fireworkSparks;
+                })
+                .toList();
+
+        List<CloudletToVmMappingSolution> sparks = new ArrayList<>();
+        sparksByFirework.forEach(sparks::addAll);
+        EXPLODE.stop(start);
+        return sparks;
+    }
+
+    public CloudletToVmMappingSolution createSpark(CloudletToVmMappingSolution firework, double amplitude, SplittableRandom rng) {
+        // Algorithm 1 part 1: Initialize spark's location = firework's location
+        IndexedCloudletToVmSolution spark = IndexedCloudletToVmSolution.copyOf(firework, heuristic, problem);
+        SPARKS_GENERATED.increment();
+
+        // Algorithm 1 part 2: displace a random subset of dimensions by h
+        int z = (int) (problem.getCloudletCount() * rng.nextDouble());
+        int[] dimensions = DimensionSampler.sample(problem.getCloudletCount(), z, rng);
+        double h = amplitude * (rng.nextDouble() * 2 - 1);
+        for (int i = 0; i < z; i++) {
+            int dimension = dimensions[i];
+            int originalVmId = vmIdOf(spark, dimension);
+            moveCloudlet(spark, dimension, originalVmId, originalVmId + (int) h);
+        }
+        return spark;
+    }
+
+    public CloudletToVmMappingSolution createGaussianSpark(CloudletToVmMappingSolution firework, SplittableRandom rng) {
+        // Algorithm 2 part 1: Initialize Spark's location= firework's location
+        IndexedCloudletToVmSolution spark = IndexedCloudletToVmSolution.copyOf(firework, heuristic, problem);
+        SPARKS_GENERATED.increment();
+
+        // Algorithm 2 part 2: scale a random subset of dimensions by the Gaussian coefficient g
+        int z = (int) (problem.getCloudletCount() * rng.nextDouble());
+        int[] dimensions = DimensionSampler.sample(problem.getCloudletCount(), z, rng);
+        double g = rng.nextGaussian();
+        for (int i = 0; i < z; i++) {
+            int dimension = dimensions[i];
+            int originalVmId = vmIdOf(spark, dimension);
+            moveCloudlet(spark, dimension, originalVmId, (int) (originalVmId * g));
+        }
+        return spark;
+    }
+
+    private int vmIdOf(IndexedCloudletToVmSolution spark, int dimension) {
+        return (int) problem.getVm(spark.getVmIndex(dimension)).getId();
+    }
+
+    private void moveCloudlet(IndexedCloudletToVmSolution spark, int dimension, int originalVmId, int newVmId) {
+        // Ensure newVmId is within bounds and different from originalVmId
+        int vms = problem.getVmCount();
+        newVmId = Math.floorMod(newVmId, vms);
+        if (newVmId == originalVmId) {
+            newVmId = (newVmId + 1) % vms;
+        }
+        spark.setVmIndex(dimension, newVmId);
+    }
+
+    /**
+     * Fitness statistics of one population, used to size the explosion of each of its fireworks.
+     */
+    public final class Generation {
+        private final double maxFitness;
+        private final double minFitness;
+        private final double belowMaxSum;
+        private final double aboveMinSum;
+
+        private Generation(double maxFitness, double minFitness, double belowMaxSum, double aboveMinSum) {
+            this.maxFitness = maxFitness;
+            this.minFitness = minFitness;
+            this.belowMaxSum = belowMaxSum;
+            this.aboveMinSum = aboveMinSum;
+        }
+
+        public double getMaxFitness() {
+            return maxFitness;
+        }
+
+        public double getMinFitness() {
+            return minFitness;
+        }
+
+        public int numSparks(CloudletToVmMappingSolution firework) {
+            // Calculate Si using eqn 2
+            double si = totalSparks * ((maxFitness - firework.getFitness() + epsilon) / (belowMaxSum + epsilon));
+
+            // Apply bounds and rounding using eqn 3
+            if (si < a * totalSparks) {
+                si = Math.round(a * totalSparks);
+            } else if (si > b * totalSparks) {
+                si = Math.round(b * totalSparks);
+            } else {
+                si = Math.round(si);
+            }
+
+            return (int) si;
+        }
+
+        public double amplitude(CloudletToVmMappingSolution firework) {
+            // Calculate Ai using eqn 4
+            return maxAmplitude * ((firework.getFitness() - minFitness + epsilon) / (aboveMinSum + epsilon));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package thesis.fwa;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The selection step of the Fireworks Algorithm: the best solution always survives and the
+ * remaining places are drawn by roulette, with each candidate weighted by its Euclidean distance
+ * (over VM ids) to the best solution.
+ *
+ * <p>Distances are computed in parallel, unless the selection is {@link #sequential()}, into a primitive array and turned into a cumulative
+ * distribution once per generation, so each draw is a binary search instead of a scan over all
+ * sparks.</p>
+ */
+public final class FireworksSelection {
+    private static final SearchMetrics.Timer SELECT = SearchMetrics.timer("fireworks.select");
+    private static final SearchMetrics.Counter SPARKS_KEPT = SearchMetrics.counter("fireworks.sparks.kept");
+
+    private final SchedulingProblem problem;
+    private final long[] vmIds;
+    private final boolean parallel;
+
+    public FireworksSelection(SchedulingProblem problem) {
+        this(problem, true);
+    }
+
+    private FireworksSelection(SchedulingProblem problem, boolean parallel) {
+        this.problem = problem;
+        this.vmIds = new long[problem.getVmCount()];
+        for (int i = 0; i < vmIds.length; i++) {
+            vmIds[i] = problem.getVm(i).getId();
+        }
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return a selection of the same problem that computes every distance on the calling thread,
+     * for searches that already run one per core
+     */
+    public FireworksSelection sequential() {
+        return new FireworksSelection(problem, false);
+    }
+
+    /**
+     * @param candidates the fireworks and their sparks
+     * @param best       the best solution found so far, which is always the first survivor
+     * @param size       the number of survivors to draw, including the best solution
+     * @return {@code size} survivors, unless there are no candidates to draw from
+     */
+    public List<CloudletToVmMappingSolution> select(List<? extends CloudletToVmMappingSolution> candidates, CloudletToVmMappingSolution best, int size, SplittableRandom rng) {
+        final long start = SELECT.start();
+        List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>(size);
+        newPopulation.add(best);
+
+        long[] bestIds = vmIdsOf(best);
+        double[] cumulativeProbabilities = new double[candidates.size()];
+        IntStream distances = IntStream.range(0, candidates.size());
+        (parallel ? distances.parallel() : distances).forEach(i -> cumulativeProbabilities[i] = distance(candidates.get(i), bestIds));
+
+        double totalDistance = 0;
+        for (double distance : cumulativeProbabilities) {
+            totalDistance += distance;
+        }
+        double cumulativeProbability = 0;
+        for (int j = 0; j < cumulativeProbabilities.length; j++) {
+            cumulativeProbability += cumulativeProbabilities[j] / totalDistance;
+            cumulativeProbabilities[j] = cumulativeProbability;
+        }
+
+        int last = cumulativeProbabilities.length - 1;
+        for (int i = 1; i < size && last >= 0; i++) {
+            int j;
+            if (totalDistance > 0) {
+                // Rounding may leave the last cumulative probability just under 1, so a draw past it takes the last candidate
+                j = Math.min(firstAtLeast(cumulativeProbabilities, rng.nextDouble()), last);
+            } else {
+                // Every candidate maps like the best solution, so the roulette has no weights and any of them will do
+                j = rng.nextInt(candidates.size());
+            }
+            newPopulation.add(candidates.get(j));
+        }
+
+        SELECT.stop(start);
+        return newPopulation;
+    }
+
+    /**
+     * Counts the places of a selected population taken by sparks into {@code fireworks.sparks.kept}.
+     * Does nothing unless {@link SearchMetrics} are enabled.
+     */
+    public static void countKeptSparks(List<? extends CloudletToVmMappingSolution> survivors, List<? extends CloudletToVmMappingSolution> sparks) {
+        if (!SearchMetrics.isEnabled()) {
+            return;
+        }
+        Set<CloudletToVmMappingSolution> sparkSet = Collections.newSetFromMap(new IdentityHashMap<>(sparks.size() * 2));
+        sparkSet.addAll(sparks);
+        long kept = 0;
+        for (CloudletToVmMappingSolution survivor : survivors) {
+            if (sparkSet.contains(survivor)) {
+                kept++;
+            }
+        }
+        SPARKS_KEPT.add(kept);
+    }
+
+    /**
+     * @return the first position whose cumulative probability is at least {@code r}, or the array length if there is none
+     */
+    private static int firstAtLeast(double[] cumulativeProbabilities, double r) {
+        int low = 0;
+        int high = cumulativeProbabilities.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeProbabilities[mid] >= r) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private double distance(CloudletToVmMappingSolution solution, long[] bestIds) {
+        double distance = 0;
+        if (solution instanceof IndexedCloudletToVmSolution indexed && indexed.getProblem() == problem) {
+            for (int i = 0; i < bestIds.length; i++) {
+                double difference = vmIds[indexed.getVmIndex(i)] - bestIds[i];
+                distance += difference * difference;
+            }
+        } else {
+            long[] ids = vmIdsOf(solution);
+            for (int i = 0; i < bestIds.length; i++) {
+                double difference = ids[i] - bestIds[i];
+                distance += difference * difference;
+            }
+        }
+        return Math.sqrt(distance);
+    }
+
+    private long[] vmIdsOf(CloudletToVmMappingSolution solution) {
+        long[] ids = new long[problem.getCloudletCount()];
+        if (solution instanceof IndexedCloudletToVmSolution indexed && indexed.getProblem() == problem) {
+            Arrays.setAll(ids, i -> vmIds[indexed.getVmIndex(i)]);
+        } else {
+            Arrays.setAll(ids, i -> solution.getResult().get(problem.getCloudlet(i)).getId());
+        }
+        return ids;
+    }
+}
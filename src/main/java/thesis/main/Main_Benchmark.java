@@ -0,0 +1,156 @@
+package thesis.main;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.distributions.UniformDistr;
+import org.cloudsimplus.util.Log;
+import org.cloudsimplus.vms.Vm;
+
+import thesis.common.ResultsSink;
+import thesis.common.SearchMetrics;
+import thesis.common.SimulationAbstractFactory;
+import thesis.common.WeightedCloudletToVmSolution;
+import thesis.common.Workload;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Times {@code solve()} of every algorithm on the same workloads and seeds, without running a simulation,
+ * and reports a quality versus latency table to the console and to {@value #CSV_FILE_PATH}.
+ *
+ * <p>For each problem size, all algorithms see the same cloudlets and VMs, and the i-th measured run of
+ * each algorithm uses the same seed. Warm-up runs use other seeds and are not reported.
+ * Runs are sequential, since evaluations are counted JVM-wide. With {@code -D}{@value SearchMetrics#PROPERTY}{@code =true},
+ * the {@link SearchMetrics} of the measured runs of each algorithm are printed below its row.</p>
+ *
+ * <p>Arguments, all optional: a comma-separated list of algorithms (default: all of
+ * {@link SimulationAbstractFactory#ALGORITHMS}), then the number of measured runs.</p>
+ */
+public class Main_Benchmark {
+    public static final String CSV_FILE_PATH = "benchmark.csv";
+    private static final ResultsSink.Schema SCHEMA = ResultsSink.Schema.of(1,
+            "algorithm,vms,cloudlets,runs,p50_ms,p90_ms,p99_ms,max_ms,evals_per_s,best_fitness,mean_fitness,peak_heap_mib");
+
+    private static final long SEED = SimulationAbstractFactory.BASE_SEED;
+    private static final int WARMUP_RUNS = 2;
+    private static int MEASURED_RUNS = 10;
+
+    public static void main(String[] args) {
+        List<String> algorithms = SimulationAbstractFactory.ALGORITHMS;
+        if (args.length > 0)
+            algorithms = List.of(args[0].split(","));
+        if (args.length > 1)
+            MEASURED_RUNS = Integer.parseInt(args[1]);
+        //Enables just some level of log messages.
+        Log.setLevel(Level.WARN);
+
+        int[] vms = {50, 200};
+        int[] cloudlets = {100, 500, 1000};
+
+        try (var results = new ResultsSink(CSV_FILE_PATH, SCHEMA)) {
+            for (int vm : vms) {
+                for (int cloudlet : cloudlets) {
+                    // Drawn once per size, so every algorithm solves the same problem
+                    final var workload = Workload.generate(0, vm, cloudlet, new SplittableRandom(SEED));
+                    System.out.printf("Benchmarking [%d VMs, %d cloudlets], %d warm-up and %d measured runs%n", vm, cloudlet, WARMUP_RUNS, MEASURED_RUNS);
+                    System.out.printf("%-12s %10s %10s %10s %10s %12s %10s %10s %10s%n",
+                            "algorithm", "p50 ms", "p90 ms", "p99 ms", "max ms", "evals/s", "best", "mean", "heap MiB");
+                    for (String algorithm : algorithms) {
+                        var summary = benchmark(algorithm, workload);
+                        System.out.println(summary.toRow());
+                        results.write(summary.toValues());
+                        if (SearchMetrics.isEnabled())
+                            System.out.print(SearchMetrics.snapshot());
+                    }
+                }
+            }
+        }
+    }
+
+    private static Summary benchmark(String algorithm, Workload workload) {
+        final List<Vm> vms = new ArrayList<>(workload.createVms());
+        final List<Cloudlet> cloudlets = workload.createCloudlets();
+
+        for (int i = 0; i < WARMUP_RUNS; i++)
+            solve(algorithm, vms, cloudlets, SEED - 1 - i);
+        SearchMetrics.reset();
+
+        final var runs = new Run[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++)
+            runs[i] = solve(algorithm, vms, cloudlets, SEED + i);
+        return new Summary(algorithm, workload.getVmCount(), workload.getCloudletCount(), runs);
+    }
+
+    private static Run solve(String algorithm, List<Vm> vms, List<Cloudlet> cloudlets, long seed) {
+        final var heuristic = SimulationAbstractFactory.createHeuristic(algorithm, new UniformDistr(0, 1, seed));
+        if (heuristic == null)
+            throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        heuristic.setVmList(vms);
+        heuristic.setCloudletList(cloudlets);
+
+        final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        final long evaluations = WeightedCloudletToVmSolution.getEvaluationCount();
+        final long start = System.nanoTime();
+        final var solution = heuristic.solve();
+        final long nanos = System.nanoTime() - start;
+
+        // Pools peak at different times, so their sum is an upper bound of the heap in use
+        final long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new Run(nanos, WeightedCloudletToVmSolution.getEvaluationCount() - evaluations, solution.getFitness(), peakHeap);
+    }
+
+    private record Run(long nanos, long evaluations, double fitness, long peakHeapBytes) {
+    }
+
+    private record Summary(String algorithm, int vms, int cloudlets, Run[] runs) {
+        /**
+         * The nearest-rank percentile of the solve times, in milliseconds.
+         */
+        double percentileMillis(double percentile) {
+            final long[] nanos = Arrays.stream(runs).mapToLong(Run::nanos).sorted().toArray();
+            final int rank = (int) Math.ceil(percentile / 100 * nanos.length);
+            return nanos[Math.max(rank, 1) - 1] / 1e6;
+        }
+
+        double evaluationsPerSecond() {
+            final long nanos = Arrays.stream(runs).mapToLong(Run::nanos).sum();
+            return nanos == 0 ? 0 : Arrays.stream(runs).mapToLong(Run::evaluations).sum() / (nanos / 1e9);
+        }
+
+        double bestFitness() {
+            return Arrays.stream(runs).mapToDouble(Run::fitness).max().orElse(0);
+        }
+
+        double meanFitness() {
+            return Arrays.stream(runs).mapToDouble(Run::fitness).average().orElse(0);
+        }
+
+        double peakHeapMiB() {
+            return Arrays.stream(runs).mapToLong(Run::peakHeapBytes).max().orElse(0) / (1024.0 * 1024);
+        }
+
+        String toRow() {
+            return "%-12s %10.2f %10.2f %10.2f %10.2f %12.0f %10.6f %10.6f %10.1f".formatted(
+                    algorithm, percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100),
+                    evaluationsPerSecond(), bestFitness(), meanFitness(), peakHeapMiB());
+        }
+
+        Object[] toValues() {
+            return new Object[]{
+                    algorithm, vms, cloudlets, runs.length,
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100),
+                    evaluationsPerSecond(), bestFitness(), meanFitness(), peakHeapMiB()};
+        }
+    }
+}
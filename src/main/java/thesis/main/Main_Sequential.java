@@ -1,17 +1,14 @@
 package thesis.main;
 
 import ch.qos.logback.classic.Level;
+import thesis.common.BatchRunner;
+import thesis.common.ResultsSink;
 import thesis.common.SimulationAbstractFactory;
 
 import org.cloudsimplus.util.Log;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-
 public class Main_Sequential {
     private static final Logger logger = LoggerFactory.getLogger(Main.class.getSimpleName());
 
@@ -31,24 +28,26 @@ public class Main_Sequential {
         int[] cloudlets = {80};
         // int[] cloudlets = {10, 20, 35, 50, 65, 80, 100, 150, 200};
 
-        // Write headers to the CSV file
-        if (!new File(CSV_FILE_PATH).exists())
-            writeHeadersToFile(CSV_FILE_PATH);
-
-        for (int host : hosts) {
-            for (int vm : vms) {
-                for (int cloudlet : cloudlets) {
-                    //if (cloudlet > 2 * host || vm > 2 * host || cloudlet > 5 * vm) continue;
-                    for (int i = 0; i < 5; i++)
-                        simulate(host, vm, cloudlet);
+        try (var results = new ResultsSink(CSV_FILE_PATH, SCHEMA);
+             var batch = new BatchRunner<Object[]>(results::write)) {
+            for (int host : hosts) {
+                for (int vm : vms) {
+                    for (int cloudlet : cloudlets) {
+                        //if (cloudlet > 2 * host || vm > 2 * host || cloudlet > 5 * vm) continue;
+                        for (int i = 0; i < 5; i++) {
+                            final long seed = SimulationAbstractFactory.BASE_SEED + i;
+                            batch.submit(() -> simulate(host, vm, cloudlet, seed));
+                        }
+                    }
                 }
             }
         }
     }
 
-    private static void simulate(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE) {
-        System.out.printf("Starting Simulations [%d, %d, %d]\n", HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE);
-        final var factory = new SimulationAbstractFactory(HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE);
+    private static Object[] simulate(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE, long seed) {
+        System.out.printf("Starting Simulations [%d, %d, %d] with seed %d\n", HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE, seed);
+        final var factory = new SimulationAbstractFactory(HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE, SimulationAbstractFactory.BASE_SEED, seed);
+        factory.setReporter(SimulationAbstractFactory.BATCH_REPORTER);
 
         var geneticAlgorithm = factory.getAlgorithm(SimulationAbstractFactory.GENETIC_ALGORITHM);
         var sequentialAlgorithm = factory.getAlgorithm(SimulationAbstractFactory.SEQUENTIAL_ALGORITHM);
@@ -129,10 +128,12 @@ public class Main_Sequential {
 
         System.out.println("Finished Simulations");
 
-        writeToFile(CSV_FILE_PATH, "%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.6f,%.6f,%.6f,%.6f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f\n".formatted(
+        final Object[] row = {
                 HOSTS_TO_CREATE,
                 VMS_TO_CREATE,
                 CLOUDLETS_TO_CREATE,
+                factory.getWorkloadSeed(),
+                factory.getSeed(),
                 geneticAlgorithm.getExecutionTime(),
                 sequentialAlgorithm.getExecutionTime(),
                 fireworksAlgorithm.getExecutionTime(),
@@ -165,29 +166,13 @@ public class Main_Sequential {
                 sequentialAlgorithm.getCPUUsageStandardDeviation(),
                 fireworksAlgorithm.getCPUUsageStandardDeviation(),
                 whaleOptimizationAlgorithm.getCPUUsageStandardDeviation()
-        ));
+        };
+        return row;
     }
 
     public static final String CSV_FILE_PATH = "sequential.csv";
 
-    private static void writeHeadersToFile(String filePath) {
-        String headers = "hosts,vms,cloudlets,ga_time,seq_time,fwa_time,woa_time,ga_fitness,seq_fitness,fwa_fitness,woa_fitness,ga_cpu_util,seq_cpu_util,fwa_cpu_util,woa_cpu_util,ga_ram_util,seq_ram_util,fwa_ram_util,woa_ram_util,ga_bw_util,seq_bw_util,fwa_bw_util,woa_bw_util,ga_power,seq_power,fwa_power,woa_power,ga_cpu_mean,seq_cpu_mean,fwa_cpu_mean,woa_cpu_mean,ga_cpu_std,seq_cpu_std,fwa_cpu_std,woa_cpu_std\n";
-        try (FileWriter fw = new FileWriter(filePath, false); // Open in write mode to overwrite
-             BufferedWriter writer = new BufferedWriter(fw)) {
-            writer.write(headers);
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    private static void writeToFile(String filePath, String content) {
-        try (FileWriter fw = new FileWriter(filePath, true); // Open in append mode to add data
-             BufferedWriter writer = new BufferedWriter(fw)) {
-            writer.write(content);
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
+    private static final ResultsSink.Schema SCHEMA = ResultsSink.Schema.of(3, "hosts,vms,cloudlets,workload_seed,seed,ga_time,seq_time,fwa_time,woa_time,ga_fitness,seq_fitness,fwa_fitness,woa_fitness,ga_cpu_util,seq_cpu_util,fwa_cpu_util,woa_cpu_util,ga_ram_util,seq_ram_util,fwa_ram_util,woa_ram_util,ga_bw_util,seq_bw_util,fwa_bw_util,woa_bw_util,ga_power,seq_power,fwa_power,woa_power,ga_cpu_mean,seq_cpu_mean,fwa_cpu_mean,woa_cpu_mean,ga_cpu_std,seq_cpu_std,fwa_cpu_std,woa_cpu_std");
 
     // Helper function to get the best algorithm
     private static String getBestAlgorithm(double gaMetric, double seqMetric, double fwaMetric, double woaMetric) {
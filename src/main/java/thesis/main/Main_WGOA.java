@@ -2,12 +2,10 @@ package thesis.main;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import thesis.common.BatchRunner;
+import thesis.common.ResultsSink;
 import thesis.common.SimulationAbstractFactory;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -24,24 +22,26 @@ public class Main_WGOA {
         int[] vms = {50};
         int[] cloudlets = {100};
 
-        // Write headers to the CSV file if the file does not exist
-        if (!new File("wgoa.csv").exists())
-            writeHeadersToFile("wgoa.csv");
-
-        for (int host : hosts) {
-            for (int vm : vms) {
-                for (int cloudlet : cloudlets) {
-                    //if (cloudlet > 2 * host || vm > 2 * host || cloudlet > 3 * vm) continue;
-                    for (int i = 0; i < 5; i++)
-                        simulate(host, vm, cloudlet);
+        try (var results = new ResultsSink("wgoa.csv", SCHEMA);
+             var batch = new BatchRunner<Object[]>(results::write)) {
+            for (int host : hosts) {
+                for (int vm : vms) {
+                    for (int cloudlet : cloudlets) {
+                        //if (cloudlet > 2 * host || vm > 2 * host || cloudlet > 3 * vm) continue;
+                        for (int i = 0; i < 5; i++) {
+                            final long seed = SimulationAbstractFactory.BASE_SEED + i;
+                            batch.submit(() -> simulate(host, vm, cloudlet, seed));
+                        }
+                    }
                 }
             }
         }
     }
 
-    private static void simulate(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE) {
-        System.out.printf("Starting Simulations [%d, %d, %d]\n", HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE);
-        final var factory = new SimulationAbstractFactory(HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE);
+    private static Object[] simulate(int HOSTS_TO_CREATE, int VMS_TO_CREATE, int CLOUDLETS_TO_CREATE, long seed) {
+        System.out.printf("Starting Simulations [%d, %d, %d] with seed %d\n", HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE, seed);
+        final var factory = new SimulationAbstractFactory(HOSTS_TO_CREATE, VMS_TO_CREATE, CLOUDLETS_TO_CREATE, SimulationAbstractFactory.BASE_SEED, seed);
+        factory.setReporter(SimulationAbstractFactory.BATCH_REPORTER);
         var wgoa = factory.getAlgorithm(SimulationAbstractFactory.WGOA_ALGORITHM);
         System.out.printf(
                 "Execution Time: \t\t%.2f\n",
@@ -84,10 +84,12 @@ public class Main_WGOA {
         );
 
 
-        writeToFile("wgoa.csv", "%d,%d,%d,%.2f,%.6f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f\n".formatted(
+        final Object[] row = {
                 HOSTS_TO_CREATE,
                 VMS_TO_CREATE,
                 CLOUDLETS_TO_CREATE,
+                factory.getWorkloadSeed(),
+                factory.getSeed(),
                 wgoa.getExecutionTime(),
                 wgoa.getFitness(),
                 wgoa.getCPUUtilization(),
@@ -96,29 +98,13 @@ public class Main_WGOA {
                 wgoa.powerConsumptionMean(),
                 wgoa.getCPUUsageMean(),
                 wgoa.getCPUUsageStandardDeviation()
-        ));
+        };
 
 
         System.out.println("Finished Simulations");
+        return row;
     }
 
-    private static void writeHeadersToFile(String filePath) {
-        String headers = "hosts,vms,cloudlets,wgoa_time,wgoa_fitness,wgoa_cpu_util,wgoa_ram_util,wgoa_bw_util,wgoa_power,wgoa_cpu_mean,wgoa_cpu_std\n";
-        try (FileWriter fw = new FileWriter(filePath, false); // Open in write mode to overwrite
-             BufferedWriter writer = new BufferedWriter(fw)) {
-            writer.write(headers);
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
-
-    private static void writeToFile(String filePath, String content) {
-        try (FileWriter fw = new FileWriter(filePath, true); // Open in append mode to add data
-             BufferedWriter writer = new BufferedWriter(fw)) {
-            writer.write(content);
-        } catch (IOException e) {
-            System.out.println(e);
-        }
-    }
+    private static final ResultsSink.Schema SCHEMA = ResultsSink.Schema.of(3, "hosts,vms,cloudlets,workload_seed,seed,wgoa_time,wgoa_fitness,wgoa_cpu_util,wgoa_ram_util,wgoa_bw_util,wgoa_power,wgoa_cpu_mean,wgoa_cpu_std");
 
 }
@@ -1,7 +1,17 @@
 package thesis.parallel;
 
+import thesis.common.BestSolutionHolder;
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.FitnessEvaluator;
+import thesis.common.Fittest;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.TerminationPolicy;
 import thesis.common.WeightedCloudletToVmSolution;
 import thesis.fwa.CloudletToVmMappingFireworksAlgorithm;
+import thesis.fwa.FireworksExplosion;
+import thesis.fwa.FireworksSelection;
 import thesis.woa.CloudletToVmMappingWhaleOptimizationAlgorithm;
 
 import org.cloudsimplus.cloudlets.Cloudlet;
@@ -9,23 +19,27 @@ import org.cloudsimplus.distributions.ContinuousDistribution;
 import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
 import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
 import org.cloudsimplus.heuristics.Heuristic;
-import org.cloudsimplus.heuristics.HeuristicSolution;
 import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.OptionalDouble;
+import java.util.Objects;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmMappingHeuristic {
     private final ContinuousDistribution random;
@@ -34,7 +48,23 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private List<Island> islands = List.of();
+    private FireworksExplosion explosion;
+    private FireworksSelection selection;
+    private BestSolutionHolder<CloudletToVmMappingSolution> best;
+    private final Object publishLock = new Object();
+    private double publishedFitness;
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingHybridParallelAlgorithm.class.getSimpleName());
+    // Islands run concurrently, so these add up the time spent on every thread
+    private static final SearchMetrics.Timer EPOCH = SearchMetrics.timer("parallel.epoch");
+    private static final SearchMetrics.Timer MIGRATE = SearchMetrics.timer("parallel.migrate");
+    private static final SearchMetrics.Timer FWA_PHASE = SearchMetrics.timer("parallel.fwa");
+    private static final SearchMetrics.Timer WOA_PHASE = SearchMetrics.timer("parallel.woa");
+    private static final SearchMetrics.Timer DIVERSIFY = SearchMetrics.timer("parallel.diversify");
 
     public static final int MAX_ITER_FWA = 100;
     public static final int MAX_ITER_WOA = 100;
@@ -44,6 +74,19 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
     public static final double a = 0.04;
     public static final double b = 0.8;
     public static final double EPSILON = 1e-6;
+    /**
+     * Generations each island runs between two exchanges of its best solutions.
+     */
+    public static final int MIGRATION_INTERVAL = 10;
+    public static final int MIGRANTS = 2;
+    private static final int MAX_NO_IMPROVEMENT_ITERS = 10;
+    /**
+     * Islands of each algorithm by default, so both together use every core.
+     */
+    public static final int DEFAULT_ISLANDS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private int fwaIslands = DEFAULT_ISLANDS;
+    private int woaIslands = DEFAULT_ISLANDS;
 
 
     public CloudletToVmMappingHybridParallelAlgorithm(ContinuousDistribution random) {
@@ -72,12 +115,14 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -92,6 +137,26 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
         return this;
     }
 
+    public int getFwaIslands() {
+        return fwaIslands;
+    }
+
+    public int getWoaIslands() {
+        return woaIslands;
+    }
+
+    /**
+     * Sets how many FWA and WOA islands {@link #solve()} evolves in parallel.
+     */
+    public CloudletToVmMappingHybridParallelAlgorithm setIslands(int fwaIslands, int woaIslands) {
+        if (fwaIslands < 0 || woaIslands < 0 || fwaIslands + woaIslands == 0) {
+            throw new IllegalArgumentException("At least one island is required, got %d FWA and %d WOA islands".formatted(fwaIslands, woaIslands));
+        }
+        this.fwaIslands = fwaIslands;
+        this.woaIslands = woaIslands;
+        return this;
+    }
+
     @Override
     public int getRandomValue(int maxValue) {
         double uniform = random.sample();
@@ -108,6 +173,13 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
 //        return vmList.get(idx);
 //    }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -131,14 +203,51 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    /**
+     * While {@link #solve()} runs, returns the best solution any island has published so far.
+     */
     @Override
     public CloudletToVmMappingSolution getBestSolutionSoFar() {
-        return bestSolutionSoFar;
+        BestSolutionHolder<CloudletToVmMappingSolution> current = best;
+        return current == null || current.get() == null ? bestSolutionSoFar : current.get();
     }
 
+    /**
+     * Each island is held to the termination policy on its own, so the search stops once every island has.
+     */
     @Override
     public boolean isToStopSearch() {
-        return false;
+        return !islands.isEmpty() && islands.stream().allMatch(island -> island.termination.isToStop());
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingHybridParallelAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
+    }
+
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends. It is called from the island threads,
+     * but one call at a time and with strictly fitter solutions each time.
+     */
+    public CloudletToVmMappingHybridParallelAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingHybridParallelAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
     }
     
 //    private CloudletToVmMappingSolution generateRandomSolution() {
@@ -148,9 +257,13 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
 //    }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        return generateRandomSolution(new Random(Double.doubleToLongBits(random.sample())));
+    }
+
+    private CloudletToVmMappingSolution generateRandomSolution(Random shuffler) {
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         List<Vm> shuffledVms = new ArrayList<>(vmList);
-        Collections.shuffle(shuffledVms);
+        Collections.shuffle(shuffledVms, shuffler);
 
         int vmIndex = 0;
         for (Cloudlet cloudlet : cloudletList) {
@@ -160,10 +273,10 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
         return solution;
     }
     
-    private CloudletToVmMappingSolution generateRandomSolution2() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+    private CloudletToVmMappingSolution generateRandomSolution2(Random shuffler) {
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         List<Vm> shuffledVms = new ArrayList<>(vmList);
-        Collections.shuffle(shuffledVms);
+        Collections.shuffle(shuffledVms, shuffler);
 
         // Track usage of VMs to avoid consecutive assignments
         int[] vmUsageCount = new int[vmList.size()];
@@ -183,205 +296,54 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
             vmUsageCount[minUsageIndex]++;
 
             // Shuffle VMs to ensure randomness
-            Collections.shuffle(shuffledVms);
+            Collections.shuffle(shuffledVms, shuffler);
         }
 
         return solution;
     }
 
 
-    private List<CloudletToVmMappingSolution> generateInitialPopulation() {
+    private List<CloudletToVmMappingSolution> generateInitialPopulation(Random shuffler) {
         List<CloudletToVmMappingSolution> population = new ArrayList<>();
         for (int i = 0; i < POPULATION_SIZE; i++) {
-            population.add(generateRandomSolution());
+            population.add(generateRandomSolution(shuffler));
         }
         return population;
     }
     
-    private List<CloudletToVmMappingSolution> generateInitialPopulationWOA() {
+    private List<CloudletToVmMappingSolution> generateInitialPopulationWOA(Random shuffler) {
         List<CloudletToVmMappingSolution> population = new ArrayList<>();
         for (int i = 0; i < POPULATION_SIZE; i++) {
-            population.add(generateRandomSolution2());
+            population.add(generateRandomSolution2(shuffler));
         }
         return population;
     }
     
-    public int calculateNumSparks(CloudletToVmMappingSolution firework, double maxFitness, List<CloudletToVmMappingSolution> population) {
-        // Calculate the summation of (maxFitness - fitness of each solution) + epsilon
-        double fitnessDifferenceSum = 0.0;
-        for (CloudletToVmMappingSolution solution : population) {
-            fitnessDifferenceSum += (maxFitness - solution.getFitness());
-        }
-
-        // Calculate Si using eqn 2
-        double si = m * ((maxFitness - firework.getFitness() + EPSILON) / (fitnessDifferenceSum + EPSILON));
-
-        // Apply bounds and rounding using eqn 3
-        if (si < a * m) {
-            si = Math.round(a * m);
-        } else if (si > b * m) {
-            si = Math.round(b * m);
-        } else {
-            si = Math.round(si);
-        }
-
-        return (int) si;
-    }
-
-    public double calculateAmplitude(CloudletToVmMappingSolution firework, double minFitness, List<CloudletToVmMappingSolution> population) {
-        // Calculate the summation of (fitness of each solution - minFitness) + epsilon
-        double fitnessDifferenceSum = 0.0;
-        for (CloudletToVmMappingSolution solution : population) {
-            fitnessDifferenceSum += (solution.getFitness() - minFitness);
-        }
-
-        // Calculate Ai using eqn 4
-        double ai = A * ((firework.getFitness() - minFitness + EPSILON) / (fitnessDifferenceSum + EPSILON));
-
-        return ai;
+    /**
+     * Evaluates the population on the calling thread, leaving its order untouched.
+     * It no longer touches {@link #bestSolutionSoFar}, since islands call it concurrently,
+     * and it does not fork, since the islands already keep every core of the pool busy.
+     *
+     * @return the fittest solution of the population
+     */
+    public CloudletToVmMappingSolution updateBestSolution(List<CloudletToVmMappingSolution> population) {
+        FitnessEvaluator.evaluateSequentially(population);
+        return Fittest.of(population);
     }
 
-    public CloudletToVmMappingSolution createSpark(CloudletToVmMappingSolution firework, double amplitude) {
-        CloudletToVmMappingSolution spark = new WeightedCloudletToVmSolution(this);
-        for (Cloudlet cloudlet : cloudletList) {
-            Vm vm = firework.getResult().get(cloudlet);
-            spark.bindCloudletToVm(cloudlet, vm);
-        }
-        mutateSpark(spark, amplitude);
-        return spark;
-    }
-
-    public void mutateSpark(CloudletToVmMappingSolution spark, double amplitude) {
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the displacement h
-        double h = amplitude * (random.sample() * 2 - 1);
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Calculate new Vm id with displacement h
-            int newVmId = originalVmId + (int) h;
-           
-         // Ensure newVmId is within bounds and different from originalVmId
-            newVmId = Math.floorMod(newVmId, vmList.size());
-            if (newVmId == originalVmId) {
-                newVmId = (newVmId + 1) % vmList.size();
-            }
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-
-    
-
-    public CloudletToVmMappingSolution createGaussianSpark(CloudletToVmMappingSolution firework) {
-        CloudletToVmMappingSolution spark = new WeightedCloudletToVmSolution(this);
-        for (Cloudlet cloudlet : cloudletList) {
-            Vm vm = firework.getResult().get(cloudlet);
-            spark.bindCloudletToVm(cloudlet, vm);
-        }
-        mutateGaussianSpark(spark);
-        return spark;
-    }
-
-    
-    public void mutateGaussianSpark(CloudletToVmMappingSolution spark) {
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the Gaussian coefficient g
-        double g = new Random().nextGaussian();
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Calculate new Vm id with Gaussian coefficient g
-            int newVmId = (int) (originalVmId * g);
-         // Ensure newVmId is within bounds and different from originalVmId
-            newVmId = Math.floorMod(newVmId, vmList.size());
-            if (newVmId == originalVmId) {
-                newVmId = (newVmId + 1) % vmList.size();
-            }
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-
-    public void updateBestSolution(List<CloudletToVmMappingSolution> population) {
-    	population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-        if (bestSolutionSoFar == null || population.get(0).getFitness() > bestSolutionSoFar.getFitness()) {
-            bestSolutionSoFar = population.get(0);
-        }
-    }
-
-    public List<CloudletToVmMappingSolution> selectNewPopulation(List<CloudletToVmMappingSolution> population) {
-        List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>();
-        newPopulation.add(bestSolutionSoFar);
-
-        List<Double> distances = new ArrayList<>();
-        double totalDistance = 0;
-        for (CloudletToVmMappingSolution solution : population) {
-            double distance = calculateDistance(solution);
-            distances.add(distance);
-            totalDistance += distance;
-        }
-
-        List<Double> selectionProbabilities = new ArrayList<>();
-        for (double distance : distances) {
-            selectionProbabilities.add(distance / totalDistance);
-        }
-
-        Random rand = new Random();
-        for (int i = 1; i < POPULATION_SIZE; i++) {
-            double r = rand.nextDouble();
-            double cumulativeProbability = 0;
-            for (int j = 0; j < population.size(); j++) {
-                cumulativeProbability += selectionProbabilities.get(j);
-                if (r <= cumulativeProbability) {
-                    newPopulation.add(population.get(j));
-                    break;
-                }
-            }
-        }
-
-        return newPopulation;
+    public double[] updateCoefficients(int iteration) {
+        return updateCoefficients(iteration, random.sample());
     }
 
-    public double calculateDistance(CloudletToVmMappingSolution solution) {
-        double distance = 0;
-        for (Cloudlet cloudlet : cloudletList) {
-            //int idx = cloudletList.indexOf(cloudlet);
-            Vm vm1 = solution.getResult().get(cloudlet);
-            Vm vm2 = bestSolutionSoFar.getResult().get(cloudlet);
-            distance += Math.pow(vm1.getId() - vm2.getId(), 2);
-        }
-        return Math.sqrt(distance);
-    }
-    
-    public double[] updateCoefficients(int iteration) {
+    private double[] updateCoefficients(int iteration, double r) {
         double a = 2 * (1 - (double) iteration / MAX_ITER_WOA);
-        double r = random.sample();
         double A = 2 * a * r - a;
         double C = 2 * r;
         return new double[]{A, C, a};
     }
 
     public CloudletToVmMappingSolution createNewPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best, double A, double C) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         for (Cloudlet cloudlet : cloudletList) {
             Vm bestVm = best.getResult().get(cloudlet);
             Vm whaleVm = whale.getResult().get(cloudlet);
@@ -397,9 +359,12 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
     }
 
     public CloudletToVmMappingSolution createSpiralPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        return createSpiralPosition(whale, best, random.sample() * 2 - 1); // a random number in [ −1,1]
+    }
+
+    private CloudletToVmMappingSolution createSpiralPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best, double l) {
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         double b = 2;
-        double l = random.sample() * 2 - 1; // a random number in [ −1,1]
         for (Cloudlet cloudlet : cloudletList) {
             Vm bestVm = best.getResult().get(cloudlet);
             Vm whaleVm = whale.getResult().get(cloudlet);
@@ -416,15 +381,13 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
 
 
     private List<CloudletToVmMappingSolution> selectBestSparks(List<CloudletToVmMappingSolution> sparks, int targetSize) {
-        sparks.sort(Comparator.comparingDouble(CloudletToVmMappingSolution::getFitness).reversed());
-        return sparks.subList(0, Math.min(sparks.size(), targetSize));
+        return Fittest.top(sparks, targetSize);
     }
 
     //  maintain population size
     private List<CloudletToVmMappingSolution> maintainPopulationSize(List<CloudletToVmMappingSolution> newPopulation, int targetSize) {
         if (newPopulation.size() > targetSize) {
-            newPopulation.sort(Comparator.comparingDouble(CloudletToVmMappingSolution::getFitness).reversed());
-            return newPopulation.subList(0, targetSize);
+            return Fittest.top(newPopulation, targetSize);
         } else {
             return newPopulation;
         }
@@ -442,233 +405,365 @@ public class CloudletToVmMappingHybridParallelAlgorithm implements CloudletToVmM
     
     @Override
     public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+    /**
+     * If the calling thread is interrupted, returns the best solution of the islands once all of them have stopped,
+     * with the interrupt status of the thread set.
+     */
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
         long startTime = System.currentTimeMillis();
-    
+        problem = SchedulingProblem.of(cloudletList, vmList);
+        explosion = new FireworksExplosion(this, problem, A, m, a, b, EPSILON).sequential();
+        selection = new FireworksSelection(problem).sequential();
+        telemetry.start();
+
+        // Every random draw of the search comes from this stream or one split from it, so a seeded distribution reproduces the result
+        SplittableRandom rng = new SplittableRandom(Double.doubleToLongBits(random.sample()));
+
         // Initial population with FWA
-        List<CloudletToVmMappingSolution> population = generateInitialPopulation();
-        population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-        bestSolutionSoFar = population.get(0);
-        updateBestSolution(Collections.singletonList(bestSolutionSoFar));
-    
-        // Use AtomicInteger for thread-safe iteration counters
-        AtomicInteger fwaIterations = new AtomicInteger(0);
-        AtomicInteger woaIterations = new AtomicInteger(0);
-        int maxNoImprovementIters = 10;
-        int noImprovementCounter = 0;
-        double previousBestFitness = bestSolutionSoFar.getFitness();
-    
-        // Parallel execution with threads for FWA and WOA
-        while (fwaIterations.get() < MAX_ITER_FWA && woaIterations.get() < MAX_ITER_WOA) {
-            // Independent best solutions for each algorithm
-       AtomicReference<CloudletToVmMappingSolution> fwaBestSolution = new AtomicReference<>(bestSolutionSoFar);
-        AtomicReference<CloudletToVmMappingSolution> woaBestSolution = new AtomicReference<>(bestSolutionSoFar);
-
-        // Wrapping populations in arrays
-        final List<CloudletToVmMappingSolution>[] fwaPopulationRef = new List[]{new ArrayList<>(population)};
-        final List<CloudletToVmMappingSolution>[] woaPopulationRef = new List[]{new ArrayList<>(population)};
-
-            // FWA Task
-            Runnable fwaTask = () -> {
-           // for (int i = 0; i < 10 && fwaIterations.get() < MAX_ITER_FWA; i++) {
-                fwaPopulationRef[0] = runFWA(fwaPopulationRef[0]);  // Update population inside array
-                fwaIterations.incrementAndGet();                    // Atomically increment fwaIterations
-                fwaBestSolution.set(getBestSolution(fwaPopulationRef[0], fwaBestSolution.get()));  // Track the best solution for FWA
-           // }
-            };
-
-            // WOA Task
-            Runnable woaTask = () -> {
-           // for (int i = 0; i < 10 && woaIterations.get() < MAX_ITER_WOA; i++) {
-                woaPopulationRef[0] = runWOA(woaPopulationRef[0], woaIterations.get());  // Update population inside array
-                woaIterations.incrementAndGet();                                         // Atomically increment woaIterations
-                woaBestSolution.set(getBestSolution(woaPopulationRef[0], woaBestSolution.get()));  // Track the best solution for WOA
-           // }
-            };
-
-            // Run both tasks in parallel
-            Thread fwaThread = new Thread(fwaTask);
-            Thread woaThread = new Thread(woaTask);
-
-            // Start both threads
-            fwaThread.start();
-            woaThread.start();
-
-            // Wait for both threads to finish
-            try {
-            fwaThread.join();
-            woaThread.join();
-            } catch (InterruptedException e) {
-            e.printStackTrace();
-            }
-            // Log FWA and WOA results independently
-            logger.debug("FWA [#%5d] : %.6f".formatted(fwaIterations.get(), fwaBestSolution.get().getFitness()));
-            logger.debug("WOA [#%5d] : %.6f".formatted(woaIterations.get(), woaBestSolution.get().getFitness()));
-    
-            // Combine FWA and WOA populations
-            population = new ArrayList<>();
-            population.addAll(fwaPopulationRef[0]);
-            population.addAll(woaPopulationRef[0]);
-    
-            // Sort and maintain population size
-            population = maintainPopulationSize(population, POPULATION_SIZE);
-    
-            // Synchronized update of the best solution so far
-            synchronized (this) {
-                bestSolutionSoFar = updateBestSolutionBasedOn(fwaBestSolution.get(), woaBestSolution.get(), bestSolutionSoFar);
-            	//updateBestSolution(population);
-            }
-    
-            // Checking for improvement
-            double currentBestFitness = bestSolutionSoFar.getFitness();
-            if (currentBestFitness <= previousBestFitness) {
-                noImprovementCounter++;
-            } else {
-                noImprovementCounter = 0;
-                previousBestFitness = currentBestFitness;
+        List<CloudletToVmMappingSolution> population = generateInitialPopulation(new Random(rng.nextLong()));
+        bestSolutionSoFar = updateBestSolution(population);
+        best = new BestSolutionHolder<>();
+        best.offer(bestSolutionSoFar);
+        publishedFitness = Double.NEGATIVE_INFINITY;
+        publish(bestSolutionSoFar);
+
+        islands = createIslands(population, rng, policy);
+        int threads = Math.min(islands.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        boolean interrupted = false;
+        try {
+            runEpochs(pool).get();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An island failed while searching", e.getCause());
+        } finally {
+            // Islands stop at the end of their current generation once interrupted.
+            // Waiting for them means the reduction below reads their final state, not one they are still writing.
+            pool.shutdownNow();
+            interrupted |= awaitTermination(pool);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
             }
-    
-            // Introduce diversity if no improvement
-            if (noImprovementCounter >= maxNoImprovementIters) {
-                noImprovementCounter = 0;
-                population = introduceMoreDiversity(population);
+        }
+
+        // Reduced in island order rather than taken from the holder, so ties always resolve the same way
+        for (Island island : islands) {
+            if (island.best.getFitness() > bestSolutionSoFar.getFitness()) {
+                bestSolutionSoFar = island.best;
             }
         }
-    
+
         // Log final result
-        logger.debug("FINAL [#%5d] : %.6f".formatted(woaIterations.get(), bestSolutionSoFar.getFitness()));
+        if (logger.isDebugEnabled()) {
+            logger.debug("FINAL [#%5d] : %.6f".formatted(MAX_ITER_WOA, bestSolutionSoFar.getFitness()));
+        }
         setSolveTime((System.currentTimeMillis() - startTime) / 1000.0);
         return bestSolutionSoFar;
     }
-    
-    private synchronized CloudletToVmMappingSolution updateBestSolutionBasedOn(
-        CloudletToVmMappingSolution fwaBestSolution, 
-        CloudletToVmMappingSolution woaBestSolution, 
-        CloudletToVmMappingSolution currentBest) {
-    CloudletToVmMappingSolution newBest = currentBest;
-    if (fwaBestSolution.getFitness() > newBest.getFitness()) {
-        newBest = fwaBestSolution;
-    }
-    if (woaBestSolution.getFitness() > newBest.getFitness()) {
-        newBest = woaBestSolution;
-    }
-    return newBest;
-}
 
-    public class FwaTask implements Runnable {
-        List<CloudletToVmMappingSolution> population;
-        public FwaTask(List<CloudletToVmMappingSolution> population) {
-            this.population = population;
+    /**
+     * Hands a new best solution to the improvement listener. Islands that improve at the same time may get here
+     * in any order, so a solution is dropped unless it is fitter than every one delivered before it.
+     */
+    private void publish(CloudletToVmMappingSolution solution) {
+        synchronized (publishLock) {
+            double fitness = solution.getFitness();
+            if (fitness > publishedFitness) {
+                publishedFitness = fitness;
+                improvementListener.accept(solution);
+            }
         }
-        @Override
-        public void run() {
-            population = runFWA(population);
-            logger.debug("IN FWA THREAD********************************");
+    }
+
+    /**
+     * Waits for every task of a shut down pool to finish, even if the calling thread is interrupted meanwhile.
+     *
+     * @return true if the calling thread was interrupted while waiting
+     */
+    private static boolean awaitTermination(ExecutorService pool) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    return interrupted;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
         }
     }
 
-    private List<CloudletToVmMappingSolution> runFWA(List<CloudletToVmMappingSolution> population) {
-        OptionalDouble maxFitnessOptional = population.stream()
-                .mapToDouble(HeuristicSolution::getFitness)
-                .max();
+    /**
+     * Creates the FWA and WOA islands, all starting from the initial population,
+     * and links them in a ring that alternates both algorithms so elites cross between them.
+     * Each island gets its own random stream, split from {@code rng} in ring order,
+     * and its own copies of the initial solutions, made here before any island runs.
+     */
+    private List<Island> createIslands(List<CloudletToVmMappingSolution> population, SplittableRandom rng, TerminationPolicy policy) {
+        List<Island> islands = new ArrayList<>(fwaIslands + woaIslands);
+        for (int i = 0; i < Math.max(fwaIslands, woaIslands); i++) {
+            if (i < fwaIslands) {
+                islands.add(new Island(islands.size(), true, MAX_ITER_FWA, population, rng.split(), policy.start()));
+            }
+            if (i < woaIslands) {
+                islands.add(new Island(islands.size(), false, MAX_ITER_WOA, population, rng.split(), policy.start()));
+            }
+        }
+        return islands;
+    }
+
+    /**
+     * Chains the epochs of every island without a barrier between them. An island starts its next epoch
+     * once it has finished its own last one and the previous island of the ring has handed over its emigrants,
+     * so islands only ever wait for their neighbour and a fast island may run epochs ahead of the far side of the ring.
+     * Emigrants travel as the results of completed futures, which publish them to whichever thread runs the next epoch.
+     * Every island takes in the same emigrants at the same epoch however threads are scheduled, so a seeded run is reproducible.
+     *
+     * @return a future completed once every island has run its last epoch and that epoch was recorded
+     */
+    private CompletableFuture<Void> runEpochs(ExecutorService pool) {
+        List<CompletableFuture<Epoch>> epochs = new ArrayList<>(islands.size());
+        for (int i = 0; i < islands.size(); i++) {
+            epochs.add(CompletableFuture.completedFuture(Epoch.NONE));
+        }
+        CompletableFuture<Void> recorded = CompletableFuture.completedFuture(null);
+
+        int generations = Math.max(MAX_ITER_FWA, MAX_ITER_WOA);
+        for (int generation = 0; generation < generations; generation += MIGRATION_INTERVAL) {
+            List<CompletableFuture<Epoch>> next = new ArrayList<>(islands.size());
+            for (int i = 0; i < islands.size(); i++) {
+                Island island = islands.get(i);
+                CompletableFuture<Epoch> previousIsland = epochs.get((i + islands.size() - 1) % islands.size());
+                next.add(epochs.get(i).thenCombineAsync(previousIsland, (own, neighbour) -> island.call(neighbour.emigrants()), pool));
+            }
+            epochs = next;
+
+            final List<CompletableFuture<Epoch>> finished = epochs;
+            final int epochEnd = Math.min(generation + MIGRATION_INTERVAL, generations);
+            // Chained to the previous recording, since the telemetry is not thread-safe
+            recorded = CompletableFuture.allOf(finished.toArray(CompletableFuture[]::new))
+                    .thenCombine(recorded, (ignored, previous) -> {
+                        recordEpoch(epochEnd, finished.stream().map(CompletableFuture::join).toList());
+                        return null;
+                    });
+        }
+        return recorded;
+    }
 
-        double maxFitness = maxFitnessOptional.isPresent() ? maxFitnessOptional.getAsDouble() : 0.0;
+    /**
+     * Records the populations all islands had at the end of an epoch as one generation,
+     * skipping epochs that started after every island had stopped.
+     */
+    private void recordEpoch(int generation, List<Epoch> epochs) {
+        if (!telemetry.isEnabled() || epochs.stream().noneMatch(Epoch::searched)) {
+            return;
+        }
+        List<CloudletToVmMappingSolution> populations = new ArrayList<>();
+        long evaluations = 0;
+        for (Epoch epoch : epochs) {
+            populations.addAll(epoch.population());
+            evaluations += epoch.evaluations();
+        }
+        telemetry.record(generation, populations, evaluations);
+    }
+
+    /**
+     * What an island hands on at the end of an epoch.
+     *
+     * @param emigrants   copies of its {@link #MIGRANTS} best solutions, for the next island of the ring
+     * @param population  its population, kept only for the telemetry
+     * @param evaluations the solutions it evaluated since the search started
+     * @param searched    whether it ran any generation in the epoch
+     */
+    private record Epoch(List<CloudletToVmMappingSolution> emigrants, List<CloudletToVmMappingSolution> population,
+                         long evaluations, boolean searched) {
+        private static final Epoch NONE = new Epoch(List.of(), List.of(), 0, false);
+    }
+
+    /**
+     * A population evolved by FWA or WOA, one {@link #MIGRATION_INTERVAL} of generations per call.
+     * The population, the island best, the random stream and the termination run belong to the island alone;
+     * the only shared state it touches is {@link #best}, through compare-and-set.
+     * Calls never overlap, but successive ones may run on different threads of the pool.
+     */
+    private final class Island {
+        private final int id;
+        private final boolean fwa;
+        private final int generations;
+        private final SplittableRandom rng;
+        private final Random shuffler;
+        private final TerminationPolicy.Run termination;
+        private List<CloudletToVmMappingSolution> population;
+        private CloudletToVmMappingSolution best;
+        private int generation;
+        private int noImprovementCounter;
+        private double previousBestFitness;
+
+        private Island(int id, boolean fwa, int generations, List<CloudletToVmMappingSolution> population, SplittableRandom rng, TerminationPolicy.Run termination) {
+            this.id = id;
+            this.fwa = fwa;
+            this.generations = generations;
+            this.rng = rng;
+            this.shuffler = new Random(rng.nextLong());
+            this.termination = termination;
+            // Copying writes to the source solution, so islands must never copy a solution another island can reach
+            this.population = new ArrayList<>(population.size());
+            for (CloudletToVmMappingSolution solution : population) {
+                this.population.add(IndexedCloudletToVmSolution.copyOf(solution, CloudletToVmMappingHybridParallelAlgorithm.this, problem));
+            }
+            this.best = Fittest.of(this.population);
+            this.previousBestFitness = best.getFitness();
+        }
 
-        OptionalDouble minFitnessOptional = population.stream()
-                .mapToDouble(HeuristicSolution::getFitness)
-                .min();
+        /**
+         * Takes in the emigrants of the previous island, then runs the generations of one epoch.
+         */
+        private Epoch call(List<CloudletToVmMappingSolution> immigrants) {
+            final long epochStart = EPOCH.start();
+            if (!immigrants.isEmpty()) {
+                final long migrateStart = MIGRATE.start();
+                immigrate(immigrants);
+                MIGRATE.stop(migrateStart);
+            }
 
-        double minFitness = minFitnessOptional.isPresent() ? minFitnessOptional.getAsDouble() : 0.0;
+            final int epochStartGeneration = generation;
+            int epochEnd = Math.min(generation + MIGRATION_INTERVAL, generations);
+            for (; generation < epochEnd && !termination.isToStop() && !Thread.currentThread().isInterrupted(); generation++) {
+                final SearchMetrics.Timer phase = fwa ? FWA_PHASE : WOA_PHASE;
+                final long phaseStart = phase.start();
+                population = fwa ? runFWA(population, best, rng, termination) : runWOA(population, generation, best, rng, termination);
+                phase.stop(phaseStart);
+                CloudletToVmMappingSolution fittest = Fittest.of(population);
+                if (fittest.getFitness() > best.getFitness()) {
+                    best = fittest;
+                    if (CloudletToVmMappingHybridParallelAlgorithm.this.best.offer(best)) {
+                        publish(best);
+                    }
+                }
 
-        List<CloudletToVmMappingSolution> sparks = new ArrayList<>();
-        for (CloudletToVmMappingSolution firework : population) {
-            int numSparks = calculateNumSparks(firework, maxFitness, population);
-            double amplitude = calculateAmplitude(firework, minFitness, population);
+                // Introduce diversity if no improvement
+                if (best.getFitness() <= previousBestFitness) {
+                    noImprovementCounter++;
+                } else {
+                    noImprovementCounter = 0;
+                    previousBestFitness = best.getFitness();
+                }
+                if (noImprovementCounter >= MAX_NO_IMPROVEMENT_ITERS) {
+                    noImprovementCounter = 0;
+                    final long diversifyStart = DIVERSIFY.start();
+                    population = new ArrayList<>(introduceMoreDiversity(population, shuffler));
+                    DIVERSIFY.stop(diversifyStart);
+                }
+                termination.update(best);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("%s island %d [#%5d] : %.6f".formatted(fwa ? "FWA" : "WOA", id, generation, best.getFitness()));
+            }
+            // Copied, since the next generation adds its sparks to the population list
+            List<CloudletToVmMappingSolution> snapshot = telemetry.isEnabled() ? List.copyOf(population) : List.of();
+            Epoch epoch = new Epoch(emigrants(), snapshot, termination.getEvaluations(), generation > epochStartGeneration);
+            EPOCH.stop(epochStart);
+            return epoch;
+        }
 
-            for (int i = 0; i < numSparks; i++) {
-                sparks.add(createSpark(firework, amplitude));
+        /**
+         * @return copies of the best solutions, so no two islands ever touch the same solution
+         */
+        private List<CloudletToVmMappingSolution> emigrants() {
+            List<CloudletToVmMappingSolution> emigrants = new ArrayList<>(MIGRANTS);
+            for (CloudletToVmMappingSolution solution : Fittest.top(population, MIGRANTS)) {
+                emigrants.add(IndexedCloudletToVmSolution.copyOf(solution, CloudletToVmMappingHybridParallelAlgorithm.this, problem));
             }
+            return List.copyOf(emigrants);
         }
 
-        for (int i = 0; i < (int) (population.size() * 0.1); i++) {
-            sparks.add(createGaussianSpark(population.get((int) (population.size() * random.sample()))));
+        private void immigrate(List<CloudletToVmMappingSolution> immigrants) {
+            List<CloudletToVmMappingSolution> merged = new ArrayList<>(population);
+            merged.addAll(immigrants);
+            best = getBestSolution(immigrants, best);
+            population = new ArrayList<>(maintainPopulationSize(merged, POPULATION_SIZE));
         }
+    }
 
-        population.addAll(sparks);
-        updateBestSolution(population);
-        population = selectNewPopulation(population);
+    /**
+     * One FWA generation that only reads and writes what it is given, so islands can run it concurrently.
+     */
+    private List<CloudletToVmMappingSolution> runFWA(List<CloudletToVmMappingSolution> population, CloudletToVmMappingSolution best, SplittableRandom rng, TerminationPolicy.Run termination) {
+        List<CloudletToVmMappingSolution> sparks = explosion.explode(population, explosion.generation(population), rng);
 
-        return population;
-    }
-    public class WoaTask implements Runnable {
-        List<CloudletToVmMappingSolution> population;
-        int woaIterations;
-        public WoaTask(List<CloudletToVmMappingSolution> population, int woaIterations) {
-            this.population = population;
-            this.woaIterations = woaIterations;
-        }
-        
-        public WoaTask(List<CloudletToVmMappingSolution> population) {
-            this.population = population;
+        for (int i = 0; i < (int) (population.size() * 0.1); i++) {
+            sparks.add(explosion.createGaussianSpark(population.get((int) (population.size() * rng.nextDouble())), rng));
         }
-        @Override
-        public void run() {
-           
-            population = runWOA(population,woaIterations);
-            logger.debug("IN WOA THREAD********************************: %d".formatted(woaIterations));
-            
+
+        population.addAll(sparks);
+        termination.countEvaluations(sparks.size());
+        CloudletToVmMappingSolution fittest = updateBestSolution(population);
+        if (fittest.getFitness() > best.getFitness()) {
+            best = fittest;
         }
+        List<CloudletToVmMappingSolution> survivors = selection.select(population, best, POPULATION_SIZE, rng);
+        FireworksSelection.countKeptSparks(survivors, sparks);
+        return survivors;
     }
-    private List<CloudletToVmMappingSolution> runWOA(List<CloudletToVmMappingSolution> population,int woaIterations) {
-        double[] coefficients = updateCoefficients(woaIterations);
+
+    /**
+     * One WOA generation that only reads and writes what it is given, so islands can run it concurrently.
+     */
+    private List<CloudletToVmMappingSolution> runWOA(List<CloudletToVmMappingSolution> population, int woaIterations, CloudletToVmMappingSolution best, SplittableRandom rng, TerminationPolicy.Run termination) {
+        double[] coefficients = updateCoefficients(woaIterations, rng.nextDouble());
         double A = coefficients[0];
         double C = coefficients[1];
-        double a = coefficients[2];
 
         List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>();
-        //System.out.println("WOA newPopulation Size(Initial): "+ newPopulation.size());
-        //logger.debug("BEGINNING [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
-        
-
         for (CloudletToVmMappingSolution whale : population) {
-            double p = random.sample();
+            double p = rng.nextDouble();
             if (p < 0.5) {
                 if (Math.abs(A) < 1) {
-                    newPopulation.add(createNewPosition(whale, bestSolutionSoFar, A, C));
+                    newPopulation.add(createNewPosition(whale, best, A, C));
                 } else {
-                    int randIdx = getRandomValue(population.size());
+                    int randIdx = rng.nextInt(population.size());
                     newPopulation.add(createNewPosition(whale, population.get(randIdx), A, C));
                 }
             } else {
-                newPopulation.add(createSpiralPosition(whale, bestSolutionSoFar));
+                newPopulation.add(createSpiralPosition(whale, best, rng.nextDouble() * 2 - 1));
             }
         }
 
-        population = newPopulation;
-        updateBestSolution(population);
-        //logger.debug("ENDING [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
-  
-        return population;
+        termination.countEvaluations(newPopulation.size());
+        updateBestSolution(newPopulation);
+        return newPopulation;
     }
     
 
-private List<CloudletToVmMappingSolution> introduceMoreDiversity(List<CloudletToVmMappingSolution> population) {
+private List<CloudletToVmMappingSolution> introduceMoreDiversity(List<CloudletToVmMappingSolution> population, Random shuffler) {
     // Implement a more aggressive strategy to introduce diversity
     List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>(population);
 
     // Add new random individuals
     for (int i = 0; i < POPULATION_SIZE / 2; i++) {
-        newPopulation.add(generateRandomSolution());
+        newPopulation.add(generateRandomSolution(shuffler));
     }
 
     // Ensure the population size remains constant
-    newPopulation.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-    return newPopulation.subList(0, Math.min(newPopulation.size(), POPULATION_SIZE));
+    return Fittest.top(newPopulation, POPULATION_SIZE);
 }
     
-    private List<CloudletToVmMappingSolution> introduceDiversity(List<CloudletToVmMappingSolution> population) {
+    private List<CloudletToVmMappingSolution> introduceDiversity(List<CloudletToVmMappingSolution> population, Random shuffler) {
         int newIndividualsCount = (int) (population.size() * 0.1);
         for (int i = 0; i < newIndividualsCount; i++) {
-            population.add(generateRandomSolution2());
+            population.add(generateRandomSolution2(shuffler));
         }
         return population;
     }
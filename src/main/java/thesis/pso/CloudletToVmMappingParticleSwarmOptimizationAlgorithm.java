@@ -10,11 +10,18 @@ import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import thesis.common.WeightedCloudletToVmSolution;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.TerminationPolicy;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.function.Consumer;
 
 public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements CloudletToVmMappingHeuristic {
     private static final int NUM_PARTICLES = 200;
@@ -29,7 +36,15 @@ public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements Cl
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingParticleSwarmOptimizationAlgorithm.class.getSimpleName());
+    private static final SearchMetrics.Timer MOVE = SearchMetrics.timer("pso.move");
+    private static final SearchMetrics.Timer EVALUATE = SearchMetrics.timer("pso.evaluate");
+    private static final SearchMetrics.Timer UPDATE_BEST = SearchMetrics.timer("pso.updateBest");
 
     public CloudletToVmMappingParticleSwarmOptimizationAlgorithm(ContinuousDistribution random) {
         this.random = random;
@@ -57,12 +72,14 @@ public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements Cl
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> cloudletList) {
         this.cloudletList = cloudletList;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> vmList) {
         this.vmList = vmList;
+        this.problem = null;
         return this;
     }
 
@@ -88,6 +105,13 @@ public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements Cl
         return vmList.get(idx);
     }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -118,11 +142,40 @@ public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements Cl
 
     @Override
     public boolean isToStopSearch() {
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingParticleSwarmOptimizationAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
+    }
+
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingParticleSwarmOptimizationAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingParticleSwarmOptimizationAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
     }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         cloudletList.forEach(cloudlet -> solution.bindCloudletToVm(cloudlet, getRandomVm()));
         return solution;
     }
@@ -138,24 +191,49 @@ public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements Cl
     public void updateGlobalBestSolution(List<Particle> particles) {
         for (Particle particle : particles) {
             if (bestSolutionSoFar == null || particle.bestFitness > bestSolutionSoFar.getFitness()) {
-                bestSolutionSoFar = new WeightedCloudletToVmSolution(particle.bestSolution);
+                bestSolutionSoFar = IndexedCloudletToVmSolution.copyOf(particle.bestSolution, this, getProblem());
             }
         }
     }
 
     @Override
     public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
         long startTime = System.currentTimeMillis();
+        problem = SchedulingProblem.of(cloudletList, vmList);
+        termination = policy.start(improvementListener);
+        telemetry.start();
         List<Particle> particles = initializeParticles();
         updateGlobalBestSolution(particles);
 
-        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+        for (int iteration = 0; iteration < MAX_ITERATIONS && !isToStopSearch(); iteration++) {
             for (Particle particle : particles) {
+                final long moveStart = MOVE.start();
                 particle.updateVelocity(bestSolutionSoFar, random);
                 particle.updatePosition(vmList);
+                MOVE.stop(moveStart);
+                final long evaluateStart = EVALUATE.start();
                 particle.evaluateFitness();
+                EVALUATE.stop(evaluateStart);
             }
+            final long updateStart = UPDATE_BEST.start();
             updateGlobalBestSolution(particles);
+            UPDATE_BEST.stop(updateStart);
+            termination.update(bestSolutionSoFar, particles.size());
+            if (telemetry.isEnabled()) {
+                telemetry.record(termination.getGenerations(), particles.stream().map(particle -> particle.solution).toList(), termination.getEvaluations());
+            }
 
             if (iteration % 10 == 0) {
                 logger.debug("[Iteration {}] Best fitness: {}", iteration, bestSolutionSoFar.getFitness());
@@ -175,7 +253,7 @@ public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements Cl
 
         Particle(CloudletToVmMappingSolution solution) {
             this.solution = solution;
-            this.bestSolution = new WeightedCloudletToVmSolution(solution);
+            this.bestSolution = IndexedCloudletToVmSolution.copyOf(solution, solution.getHeuristic(), getProblem());
             this.bestFitness = solution.getFitness();
             this.velocity = new double[cloudletList.size()];
             this.stagnantCount = 0; // Initialize stagnant counter
@@ -189,7 +267,7 @@ public class CloudletToVmMappingParticleSwarmOptimizationAlgorithm implements Cl
             double fitness = solution.getFitness();
             if (fitness > bestFitness) {
                 bestFitness = fitness;
-                bestSolution = new WeightedCloudletToVmSolution(solution);
+                bestSolution = IndexedCloudletToVmSolution.copyOf(solution, solution.getHeuristic(), getProblem());
                 stagnantCount = 0; // Reset stagnant counter when an improvement is found
             } else {
                 stagnantCount++;
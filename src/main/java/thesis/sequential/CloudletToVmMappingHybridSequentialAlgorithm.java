@@ -1,8 +1,17 @@
 package thesis.sequential;
 
 
+import thesis.common.FitnessEvaluator;
+import thesis.common.Fittest;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.TerminationPolicy;
 import thesis.common.WeightedCloudletToVmSolution;
 import thesis.fwa.CloudletToVmMappingFireworksAlgorithm;
+import thesis.fwa.FireworksExplosion;
+import thesis.fwa.FireworksSelection;
 import thesis.woa.CloudletToVmMappingWhaleOptimizationAlgorithm;
 
 import org.cloudsimplus.cloudlets.Cloudlet;
@@ -15,14 +24,17 @@ import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.OptionalDouble;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -33,7 +45,19 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private Random shuffler;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
+    private FireworksExplosion explosion;
+    private FireworksSelection selection;
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingHybridSequentialAlgorithm.class.getSimpleName());
+    private static final SearchMetrics.Timer FWA_PHASE = SearchMetrics.timer("sequential.fwa");
+    private static final SearchMetrics.Timer WOA_PHASE = SearchMetrics.timer("sequential.woa");
+    private static final SearchMetrics.Timer MERGE = SearchMetrics.timer("sequential.merge");
+    private static final SearchMetrics.Timer DIVERSIFY = SearchMetrics.timer("sequential.diversify");
 
     public static final int MAX_ITER_FWA = 100;
     public static final int MAX_ITER_WOA = 100;
@@ -71,12 +95,14 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -107,6 +133,23 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
 //        return vmList.get(idx);
 //    }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
+    /**
+     * Seeded from {@link #random} on first use, so a seeded distribution fixes the initial populations too.
+     */
+    private Random getShuffler() {
+        if (shuffler == null) {
+            shuffler = new Random(Double.doubleToLongBits(random.sample()));
+        }
+        return shuffler;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -137,7 +180,36 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
 
     @Override
     public boolean isToStopSearch() {
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingHybridSequentialAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
+    }
+
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingHybridSequentialAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingHybridSequentialAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
     }
     
 //    private CloudletToVmMappingSolution generateRandomSolution() {
@@ -147,9 +219,9 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
 //    }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         List<Vm> shuffledVms = new ArrayList<>(vmList);
-        Collections.shuffle(shuffledVms);
+        Collections.shuffle(shuffledVms, getShuffler());
 
         int vmIndex = 0;
         for (Cloudlet cloudlet : cloudletList) {
@@ -160,9 +232,9 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
     }
     
     private CloudletToVmMappingSolution generateRandomSolution2() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         List<Vm> shuffledVms = new ArrayList<>(vmList);
-        Collections.shuffle(shuffledVms);
+        Collections.shuffle(shuffledVms, getShuffler());
 
         // Track usage of VMs to avoid consecutive assignments
         int[] vmUsageCount = new int[vmList.size()];
@@ -182,7 +254,7 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
             vmUsageCount[minUsageIndex]++;
 
             // Shuffle VMs to ensure randomness
-            Collections.shuffle(shuffledVms);
+            Collections.shuffle(shuffledVms, getShuffler());
         }
 
         return solution;
@@ -205,81 +277,6 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
         return population;
     }
     
-    public int calculateNumSparks(CloudletToVmMappingSolution firework, double maxFitness, List<CloudletToVmMappingSolution> population) {
-        // Calculate the summation of (maxFitness - fitness of each solution) + epsilon
-        double fitnessDifferenceSum = 0.0;
-        for (CloudletToVmMappingSolution solution : population) {
-            fitnessDifferenceSum += (maxFitness - solution.getFitness());
-        }
-
-        // Calculate Si using eqn 2
-        double si = m * ((maxFitness - firework.getFitness() + EPSILON) / (fitnessDifferenceSum + EPSILON));
-
-        // Apply bounds and rounding using eqn 3
-        if (si < a * m) {
-            si = Math.round(a * m);
-        } else if (si > b * m) {
-            si = Math.round(b * m);
-        } else {
-            si = Math.round(si);
-        }
-
-        return (int) si;
-    }
-
-    public double calculateAmplitude(CloudletToVmMappingSolution firework, double minFitness, List<CloudletToVmMappingSolution> population) {
-        // Calculate the summation of (fitness of each solution - minFitness) + epsilon
-        double fitnessDifferenceSum = 0.0;
-        for (CloudletToVmMappingSolution solution : population) {
-            fitnessDifferenceSum += (solution.getFitness() - minFitness);
-        }
-
-        // Calculate Ai using eqn 4
-        double ai = A * ((firework.getFitness() - minFitness + EPSILON) / (fitnessDifferenceSum + EPSILON));
-
-        return ai;
-    }
-
-    public CloudletToVmMappingSolution createSpark(CloudletToVmMappingSolution firework, double amplitude) {
-        CloudletToVmMappingSolution spark = new WeightedCloudletToVmSolution(this);
-        for (Cloudlet cloudlet : cloudletList) {
-            Vm vm = firework.getResult().get(cloudlet);
-            spark.bindCloudletToVm(cloudlet, vm);
-        }
-        mutateSpark(spark, amplitude);
-        return spark;
-    }
-
-    public void mutateSpark(CloudletToVmMappingSolution spark, double amplitude) {
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the displacement h
-        double h = amplitude * (random.sample() * 2 - 1);
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Calculate new Vm id with displacement h
-            int newVmId = originalVmId + (int) h;
-           
-         // Ensure newVmId is within bounds and different from originalVmId
-            newVmId = Math.floorMod(newVmId, vmList.size());
-            if (newVmId == originalVmId) {
-                newVmId = (newVmId + 1) % vmList.size();
-            }
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-
-    
 /*    //Use of  Load Distribution
     private void mutateSpark(CloudletToVmMappingSolution spark, double amplitude) {
         // Determine the number of dimensions to mutate
@@ -329,45 +326,6 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
         }
     }
 */
-    public CloudletToVmMappingSolution createGaussianSpark(CloudletToVmMappingSolution firework) {
-        CloudletToVmMappingSolution spark = new WeightedCloudletToVmSolution(this);
-        for (Cloudlet cloudlet : cloudletList) {
-            Vm vm = firework.getResult().get(cloudlet);
-            spark.bindCloudletToVm(cloudlet, vm);
-        }
-        mutateGaussianSpark(spark);
-        return spark;
-    }
-
-    
-    public void mutateGaussianSpark(CloudletToVmMappingSolution spark) {
-        // Determine the number of dimensions to mutate
-        int z = (int) (cloudletList.size() * random.sample());
-        List<Integer> dimensions = new ArrayList<>(IntStream.range(0, cloudletList.size()).boxed().collect(Collectors.toList()));
-        Collections.shuffle(dimensions);
-        List<Integer> selectedDimensions = dimensions.subList(0, z);
-
-        // Calculate the Gaussian coefficient g
-        double g = new Random().nextGaussian();
-
-        for (int dimension : selectedDimensions) {
-            Cloudlet cloudlet = cloudletList.get(dimension);
-            Vm originalVm = spark.getResult().get(cloudlet);
-            int originalVmId = (int) originalVm.getId();
-
-            // Calculate new Vm id with Gaussian coefficient g
-            int newVmId = (int) (originalVmId * g);
-         // Ensure newVmId is within bounds and different from originalVmId
-            newVmId = Math.floorMod(newVmId, vmList.size());
-            if (newVmId == originalVmId) {
-                newVmId = (newVmId + 1) % vmList.size();
-            }
-            // Bind the cloudlet to the new Vm
-            Vm newVm = vmList.get(newVmId);
-            spark.bindCloudletToVm(cloudletList.get(dimension), newVm);
-        }
-    }
-
 /*   
  // Load Distribution    
     private void mutateGaussianSpark(CloudletToVmMappingSolution spark) {
@@ -418,56 +376,13 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
     }
 */
     public void updateBestSolution(List<CloudletToVmMappingSolution> population) {
-    	population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-        if (bestSolutionSoFar == null || population.get(0).getFitness() > bestSolutionSoFar.getFitness()) {
-            bestSolutionSoFar = population.get(0);
-        }
-    }
-
-    public List<CloudletToVmMappingSolution> selectNewPopulation(List<CloudletToVmMappingSolution> population) {
-        List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>();
-        newPopulation.add(bestSolutionSoFar);
-
-        List<Double> distances = new ArrayList<>();
-        double totalDistance = 0;
-        for (CloudletToVmMappingSolution solution : population) {
-            double distance = calculateDistance(solution);
-            distances.add(distance);
-            totalDistance += distance;
-        }
-
-        List<Double> selectionProbabilities = new ArrayList<>();
-        for (double distance : distances) {
-            selectionProbabilities.add(distance / totalDistance);
+        FitnessEvaluator.evaluate(population);
+        CloudletToVmMappingSolution fittest = Fittest.of(population);
+        if (bestSolutionSoFar == null || fittest.getFitness() > bestSolutionSoFar.getFitness()) {
+            bestSolutionSoFar = fittest;
         }
-
-        Random rand = new Random();
-        for (int i = 1; i < POPULATION_SIZE; i++) {
-            double r = rand.nextDouble();
-            double cumulativeProbability = 0;
-            for (int j = 0; j < population.size(); j++) {
-                cumulativeProbability += selectionProbabilities.get(j);
-                if (r <= cumulativeProbability) {
-                    newPopulation.add(population.get(j));
-                    break;
-                }
-            }
-        }
-
-        return newPopulation;
     }
 
-    public double calculateDistance(CloudletToVmMappingSolution solution) {
-        double distance = 0;
-        for (Cloudlet cloudlet : cloudletList) {
-            //int idx = cloudletList.indexOf(cloudlet);
-            Vm vm1 = solution.getResult().get(cloudlet);
-            Vm vm2 = bestSolutionSoFar.getResult().get(cloudlet);
-            distance += Math.pow(vm1.getId() - vm2.getId(), 2);
-        }
-        return Math.sqrt(distance);
-    }
-    
     public double[] updateCoefficients(int iteration) {
         double a = 2 * (1 - (double) iteration / MAX_ITER_WOA);
         double r = random.sample();
@@ -477,7 +392,7 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
     }
 
     public CloudletToVmMappingSolution createNewPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best, double A, double C) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         for (Cloudlet cloudlet : cloudletList) {
             Vm bestVm = best.getResult().get(cloudlet);
             Vm whaleVm = whale.getResult().get(cloudlet);
@@ -493,7 +408,7 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
     }
 
     public CloudletToVmMappingSolution createSpiralPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         double b = 2;
         double l = random.sample() * 2 - 1; // a random number in [ −1,1]
         for (Cloudlet cloudlet : cloudletList) {
@@ -583,7 +498,7 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
             updateBestSolution(population);
             //population = selectNewPopulation(population);
 
-            if (iteration % 20 == 0) {
+            if (iteration % 20 == 0 && logger.isDebugEnabled()) {
                 logger.debug("[#{}] : {}", iteration, bestSolutionSoFar.getResult());
                 logger.debug("[#HYBRID{}] : {}", iteration, bestSolutionSoFar.getFitness());
                
@@ -599,15 +514,13 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
   	  
  //  select the best sparks to maintain population size
     private List<CloudletToVmMappingSolution> selectBestSparks(List<CloudletToVmMappingSolution> sparks, int targetSize) {
-        sparks.sort(Comparator.comparingDouble(CloudletToVmMappingSolution::getFitness).reversed());
-        return sparks.subList(0, Math.min(sparks.size(), targetSize));
+        return Fittest.top(sparks, targetSize);
     }
 
     //  maintain population size
     private List<CloudletToVmMappingSolution> maintainPopulationSize(List<CloudletToVmMappingSolution> newPopulation, int targetSize) {
         if (newPopulation.size() > targetSize) {
-            newPopulation.sort(Comparator.comparingDouble(CloudletToVmMappingSolution::getFitness).reversed());
-            return newPopulation.subList(0, targetSize);
+            return Fittest.top(newPopulation, targetSize);
         } else {
             return newPopulation;
         }
@@ -637,14 +550,18 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
                 population = runFWA(population);
                 fwaIterations++;
             }
-            logger.debug("FWA [#%5d] : %.6f".formatted(fwaIterations, bestSolutionSoFar.getFitness()));
+            if (logger.isDebugEnabled()) {
+                logger.debug("FWA [#%5d] : %.6f".formatted(fwaIterations, bestSolutionSoFar.getFitness()));
+            }
 
             // Run WOA for a few iterations
             for (int i = 0; i < 10 && woaIterations < MAX_ITER_WOA; i++) {
                 population = runWOA(population,woaIterations);
                 woaIterations++;
             }
-            logger.debug("WOA [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
+            if (logger.isDebugEnabled()) {
+                logger.debug("WOA [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
+            }
 
             // Update the best solution so far
             updateBestSolution(population);
@@ -665,7 +582,9 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
                 population = introduceDiversity(population);
             }
         }
-        logger.debug("FINAL [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
+        if (logger.isDebugEnabled()) {
+            logger.debug("FINAL [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
+        }
 
         setSolveTime((System.currentTimeMillis() - startTime) / 1000.0);
         return bestSolutionSoFar;
@@ -674,7 +593,24 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
 */
     @Override
     public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
         long startTime = System.currentTimeMillis();
+        problem = SchedulingProblem.of(cloudletList, vmList);
+        termination = policy.start(improvementListener);
+        telemetry.start();
+        explosion = new FireworksExplosion(this, problem, A, m, a, b, EPSILON);
+        selection = new FireworksSelection(problem);
 
         // Initial population with FWA
         List<CloudletToVmMappingSolution> population = generateInitialPopulation();
@@ -688,29 +624,41 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
         int noImprovementCounter = 0;
         double previousBestFitness = bestSolutionSoFar.getFitness();
 
-        while (fwaIterations < MAX_ITER_FWA && woaIterations < MAX_ITER_WOA) {
+        while (fwaIterations < MAX_ITER_FWA && woaIterations < MAX_ITER_WOA && !isToStopSearch()) {
             // Run FWA for a few iterations
             List<CloudletToVmMappingSolution> fwaPopulation = new ArrayList<>(population);
-            for (int i = 0; i < 10 && fwaIterations < MAX_ITER_FWA; i++) {
+            for (int i = 0; i < 10 && fwaIterations < MAX_ITER_FWA && !isToStopSearch(); i++) {
+                final long fwaStart = FWA_PHASE.start();
                 fwaPopulation = runFWA(fwaPopulation);
+                FWA_PHASE.stop(fwaStart);
                 fwaIterations++;
+                termination.update(bestSolutionSoFar);
+                telemetry.record(termination.getGenerations(), fwaPopulation, termination.getEvaluations());
                 //logger.debug("FWA [#%5d] : %.6f".formatted(fwaIterations, bestSolutionSoFar.getFitness()));
             }
             //System.out.println("FWA Pop Size: "+ fwaPopulation.size());
             //logger.debug("[#{}] : {}", fwaIterations, bestSolutionSoFar.getResult());
-            logger.debug("FWA [#%5d] : %.6f".formatted(fwaIterations, bestSolutionSoFar.getFitness()));
-            logger.debug("[#{}] : {}", bestSolutionSoFar.getResult());
+            if (logger.isDebugEnabled()) {
+                logger.debug("FWA [#%5d] : %.6f".formatted(fwaIterations, bestSolutionSoFar.getFitness()));
+                logger.debug("[#{}] : {}", fwaIterations, bestSolutionSoFar.getResult());
+            }
             // Run WOA for a few iterations
             List<CloudletToVmMappingSolution> woaPopulation = new ArrayList<>(population);
-            for (int i = 0; i < 10 && woaIterations < MAX_ITER_WOA; i++) {
+            for (int i = 0; i < 10 && woaIterations < MAX_ITER_WOA && !isToStopSearch(); i++) {
+                final long woaStart = WOA_PHASE.start();
                 woaPopulation = runWOA(woaPopulation, woaIterations);
+                WOA_PHASE.stop(woaStart);
                 woaIterations++;
+                termination.update(bestSolutionSoFar);
+                telemetry.record(termination.getGenerations(), woaPopulation, termination.getEvaluations());
                 //logger.debug("WOA [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
             }
             //System.out.println("WOA Pop Size: "+ woaPopulation.size());
             //logger.debug("[#{}] : {}", woaIterations, bestSolutionSoFar.getResult());
-            logger.debug("WOA [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
-            logger.debug("[#{}] : {}", bestSolutionSoFar.getResult());
+            if (logger.isDebugEnabled()) {
+                logger.debug("WOA [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
+                logger.debug("[#{}] : {}", woaIterations, bestSolutionSoFar.getResult());
+            }
             // Combine FWA and WOA populations
             population = new ArrayList<>();
             population.addAll(fwaPopulation);
@@ -721,7 +669,9 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
 
             // Keep only the top solutions to maintain population size
            // population = population.subList(0, Math.min(population.size(), POPULATION_SIZE));
+            final long mergeStart = MERGE.start();
             population=maintainPopulationSize(population,POPULATION_SIZE);
+            MERGE.stop(mergeStart);
 
             // Update the best solution so far
             updateBestSolution(population);
@@ -739,46 +689,34 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
             if (noImprovementCounter >= maxNoImprovementIters) {
                 noImprovementCounter = 0;
                 // introduce new individuals to increase diversity
+                final long diversifyStart = DIVERSIFY.start();
                 population = introduceMoreDiversity(population);
+                DIVERSIFY.stop(diversifyStart);
             }
         }
-        logger.debug("FINAL [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
-        logger.debug("[#{}] : {}", bestSolutionSoFar.getResult());
+        if (logger.isDebugEnabled()) {
+            logger.debug("FINAL [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
+            logger.debug("[#{}] : {}", woaIterations, bestSolutionSoFar.getResult());
+        }
         setSolveTime((System.currentTimeMillis() - startTime) / 1000.0);
         return bestSolutionSoFar;
     }
 
     
     private List<CloudletToVmMappingSolution> runFWA(List<CloudletToVmMappingSolution> population) {
-        OptionalDouble maxFitnessOptional = population.stream()
-                .mapToDouble(HeuristicSolution::getFitness)
-                .max();
-
-        double maxFitness = maxFitnessOptional.isPresent() ? maxFitnessOptional.getAsDouble() : 0.0;
-
-        OptionalDouble minFitnessOptional = population.stream()
-                .mapToDouble(HeuristicSolution::getFitness)
-                .min();
-
-        double minFitness = minFitnessOptional.isPresent() ? minFitnessOptional.getAsDouble() : 0.0;
-
-        List<CloudletToVmMappingSolution> sparks = new ArrayList<>();
-        for (CloudletToVmMappingSolution firework : population) {
-            int numSparks = calculateNumSparks(firework, maxFitness, population);
-            double amplitude = calculateAmplitude(firework, minFitness, population);
-
-            for (int i = 0; i < numSparks; i++) {
-                sparks.add(createSpark(firework, amplitude));
-            }
-        }
+        // One random stream per firework, plus one for the Gaussian sparks, seeded from the configured distribution
+        SplittableRandom rng = new SplittableRandom(Double.doubleToLongBits(random.sample()));
+        List<CloudletToVmMappingSolution> sparks = explosion.explode(population, explosion.generation(population), rng);
 
         for (int i = 0; i < (int) (population.size() * 0.1); i++) {
-            sparks.add(createGaussianSpark(population.get((int) (population.size() * random.sample()))));
+            sparks.add(explosion.createGaussianSpark(population.get((int) (population.size() * random.sample())), rng));
         }
 
         population.addAll(sparks);
+        termination.countEvaluations(sparks.size());
         updateBestSolution(population);
-        population = selectNewPopulation(population);
+        population = selection.select(population, bestSolutionSoFar, POPULATION_SIZE, rng);
+        FireworksSelection.countKeptSparks(population, sparks);
 
         return population;
     }
@@ -808,6 +746,7 @@ public class CloudletToVmMappingHybridSequentialAlgorithm implements CloudletToV
             }
         }
 
+        termination.countEvaluations(newPopulation.size());
         population = newPopulation;
         updateBestSolution(population);
         //logger.debug("ENDING [#%5d] : %.6f".formatted(woaIterations, bestSolutionSoFar.getFitness()));
@@ -826,8 +765,7 @@ private List<CloudletToVmMappingSolution> introduceMoreDiversity(List<CloudletTo
     }
 
     // Ensure the population size remains constant
-    newPopulation.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-    return newPopulation.subList(0, Math.min(newPopulation.size(), POPULATION_SIZE));
+    return Fittest.top(newPopulation, POPULATION_SIZE);
 }
     
     private List<CloudletToVmMappingSolution> introduceDiversity(List<CloudletToVmMappingSolution> population) {
@@ -888,14 +826,16 @@ private List<CloudletToVmMappingSolution> introduceMoreDiversity(List<CloudletTo
             updateBestSolution(population);
             population = selectNewPopulation(population);
 
-            if (iterations % 20 == 0) {
+            if (iterations % 20 == 0 && logger.isDebugEnabled()) {
             	logger.debug("[#{}] : {}", iterations, bestSolutionSoFar.getResult());
                 logger.debug("FWA [#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
             }
             iterations++;
         }
-        logger.debug("[#{}] : {}", iterations, bestSolutionSoFar.getResult());
-        logger.debug("FWA (1st part of SEQUENTIAL) [#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
+        if (logger.isDebugEnabled()) {
+            logger.debug("[#{}] : {}", iterations, bestSolutionSoFar.getResult());
+            logger.debug("FWA (1st part of SEQUENTIAL) [#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
+        }
         
         // WOA
         // Initialize WOA with best individuals from FWA
@@ -944,7 +884,7 @@ private List<CloudletToVmMappingSolution> introduceMoreDiversity(List<CloudletTo
             population = newPopulation;
             updateBestSolution(population);
 
-            if (iteration % 20 == 0) {
+            if (iteration % 20 == 0 && logger.isDebugEnabled()) {
             	 logger.debug("[#{}] : {}", iteration, bestSolutionSoFar.getResult());
             	 logger.debug("WOA [#%5d] : %.6f".formatted(iteration, bestSolutionSoFar.getFitness()));
                
@@ -953,7 +893,9 @@ private List<CloudletToVmMappingSolution> introduceMoreDiversity(List<CloudletTo
             }
         }
         
-        logger.debug("WOA FINAL [#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
+        if (logger.isDebugEnabled()) {
+            logger.debug("WOA FINAL [#%5d] : %.6f".formatted(iterations, bestSolutionSoFar.getFitness()));
+        }
         setSolveTime((System.currentTimeMillis() - startTime) / 1000.0);
         return bestSolutionSoFar;
     }
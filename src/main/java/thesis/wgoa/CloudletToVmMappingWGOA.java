@@ -11,13 +11,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.buet.thesis.le.ga.CloudletToVmMappingGeneticAlgorithm;
+import thesis.common.FitnessEvaluator;
+import thesis.common.Fittest;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.TerminationPolicy;
 import thesis.common.WeightedCloudletToVmSolution;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -31,6 +41,11 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
    
     public static final double CROSSOVER_RATE = 0.9;
     public static final double MUTATION_RATE = 0.1;
@@ -39,6 +54,9 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     
 
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingWGOA.class.getSimpleName());
+    private static final SearchMetrics.Timer MOVE = SearchMetrics.timer("wgoa.move");
+    private static final SearchMetrics.Timer CROSSOVER = SearchMetrics.timer("wgoa.crossover");
+    private static final SearchMetrics.Timer UPDATE_BEST = SearchMetrics.timer("wgoa.updateBest");
 
     public CloudletToVmMappingWGOA(ContinuousDistribution random) {
         this.random = random;
@@ -67,12 +85,14 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -103,6 +123,13 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
 //        return vmList.get(idx);
 //    }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -133,11 +160,40 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
 
     @Override
     public boolean isToStopSearch() {
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingWGOA setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
+    }
+
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingWGOA setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingWGOA setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
     }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         cloudletList.forEach(cloudlet -> solution.bindCloudletToVm(cloudlet, getRandomVm()));
         return solution;
     }
@@ -175,7 +231,7 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     }
 
     public CloudletToVmMappingSolution createNewPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best, double A, double C) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         for (Cloudlet cloudlet : cloudletList) {
             Vm bestVm = best.getResult().get(cloudlet);
             Vm whaleVm = whale.getResult().get(cloudlet);
@@ -195,7 +251,7 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     }
 
     public CloudletToVmMappingSolution createSpiralPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         double b = 2;
         double l = random.sample() * 2 - 1; // a random number in [ −1,1]
         for (Cloudlet cloudlet : cloudletList) {
@@ -216,9 +272,10 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     }
 
     public void updateBestSolution(List<CloudletToVmMappingSolution> population) {
-        population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-        if (bestSolutionSoFar == null || population.get(0).getFitness() > bestSolutionSoFar.getFitness()) {
-            bestSolutionSoFar = population.get(0);
+        FitnessEvaluator.evaluate(population);
+        CloudletToVmMappingSolution fittest = Fittest.of(population);
+        if (bestSolutionSoFar == null || fittest.getFitness() > bestSolutionSoFar.getFitness()) {
+            bestSolutionSoFar = fittest;
         }
     }
     
@@ -263,10 +320,10 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
         CloudletToVmMappingSolution father = parents[0];
         CloudletToVmMappingSolution mother = parents[1];
 
-        CloudletToVmMappingSolution son = new WeightedCloudletToVmSolution(father);
-        CloudletToVmMappingSolution daughter = new WeightedCloudletToVmSolution(mother);
+        CloudletToVmMappingSolution son = IndexedCloudletToVmSolution.copyOf(father, this, getProblem());
+        CloudletToVmMappingSolution daughter = IndexedCloudletToVmSolution.copyOf(mother, this, getProblem());
 
-        var cloudlets = new ArrayList<>(father.getResult().keySet());
+        var cloudlets = getProblem().getCloudletList();
 
         for (var cloudlet : cloudlets) {
             if (this.random.sample() < 0.5) {
@@ -281,7 +338,7 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     }
 
     private void mutation(CloudletToVmMappingSolution solution) {
-        var cloudlets = new ArrayList<>(solution.getResult().keySet());
+        var cloudlets = getProblem().getCloudletList();
         var cloudlet = cloudlets.get(this.getRandomValue(cloudlets.size()));
         var vm = this.getRandomVm();
         solution.bindCloudletToVm(cloudlet, vm);
@@ -295,17 +352,33 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
     }
     
     @Override
-  public CloudletToVmMappingSolution solve() {
+    public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+  private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
     long startTime = System.currentTimeMillis();
+    problem = SchedulingProblem.of(cloudletList, vmList);
+    termination = policy.start(improvementListener);
+    telemetry.start();
     List<CloudletToVmMappingSolution> population = generateInitialPopulation(); // Generate initial population
     updateBestSolution(population); // Update the best solution so far
 
-    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+    for (int iteration = 0; iteration < MAX_ITERATIONS && !isToStopSearch(); iteration++) {
         double[] coefficients = updateCoefficients(iteration); // Calculate A, C, and a
         double A = coefficients[0];
         double C = coefficients[1];
         double a = coefficients[2];
 
+        final long moveStart = MOVE.start();
         List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>();
 
         for (CloudletToVmMappingSolution whale : population) {
@@ -324,22 +397,28 @@ public class CloudletToVmMappingWGOA implements CloudletToVmMappingHeuristic {
                 newPopulation.add(createSpiralPosition(whale, bestSolutionSoFar));
             }
         }
+        MOVE.stop(moveStart);
 
         // Apply crossover and mutation after updating positions
+        final long crossoverStart = CROSSOVER.start();
         if (random.sample() < CROSSOVER_RATE) {
             var children = crossover(newPopulation); // Apply crossover
             if (random.sample() < MUTATION_RATE) {
                 mutation(children[getRandomValue(2)]); // Apply mutation on one child
             }
-            System.err.println("IN GENEEEEEEEE\n");
             newPopulation.addAll(Arrays.asList(children)); // Add children to the population
         }
+        CROSSOVER.stop(crossoverStart);
 
         population = newPopulation; // Update the population with the new one
+        final long updateStart = UPDATE_BEST.start();
         updateBestSolution(population); // Update the best solution found
+        UPDATE_BEST.stop(updateStart);
+        termination.update(bestSolutionSoFar, population.size());
+        telemetry.record(termination.getGenerations(), population, termination.getEvaluations());
 
         // Debugging and logging every 50 iterations
-        if (iteration % 50 == 0) {
+        if (iteration % 50 == 0 && logger.isDebugEnabled()) {
             logger.debug("[#{}] : {}", iteration, bestSolutionSoFar.getResult());
             logger.debug("[#{}] : {}", iteration, bestSolutionSoFar.getFitness());
         }
@@ -10,12 +10,22 @@ import org.cloudsimplus.vms.Vm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import thesis.common.FitnessEvaluator;
+import thesis.common.Fittest;
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.SearchMetrics;
+import thesis.common.ConvergenceTelemetry;
+import thesis.common.TerminationPolicy;
 import thesis.common.WeightedCloudletToVmSolution;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -29,7 +39,15 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
     private CloudletToVmMappingSolution bestSolutionSoFar, initialSolution;
     private List<Cloudlet> cloudletList;
     private List<Vm> vmList;
+    private SchedulingProblem problem;
+    private TerminationPolicy terminationPolicy = TerminationPolicy.DEFAULT;
+    private Consumer<? super CloudletToVmMappingSolution> improvementListener = solution -> {};
+    private ConvergenceTelemetry telemetry = ConvergenceTelemetry.DISABLED;
+    private TerminationPolicy.Run termination;
     private final static Logger logger = LoggerFactory.getLogger(CloudletToVmMappingWhaleOptimizationAlgorithm.class.getSimpleName());
+    private static final SearchMetrics.Timer MOVE = SearchMetrics.timer("woa.move");
+    private static final SearchMetrics.Timer REPAIR = SearchMetrics.timer("woa.repair");
+    private static final SearchMetrics.Timer UPDATE_BEST = SearchMetrics.timer("woa.updateBest");
 
     public CloudletToVmMappingWhaleOptimizationAlgorithm(ContinuousDistribution random) {
         this.random = random;
@@ -58,12 +76,14 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
     @Override
     public CloudletToVmMappingHeuristic setCloudletList(List<Cloudlet> list) {
         this.cloudletList = list;
+        this.problem = null;
         return this;
     }
 
     @Override
     public CloudletToVmMappingHeuristic setVmList(List<Vm> list) {
         this.vmList = list;
+        this.problem = null;
         return this;
     }
 
@@ -94,6 +114,13 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
 //        return vmList.get(idx);
 //    }
 
+    private SchedulingProblem getProblem() {
+        if (problem == null) {
+            problem = SchedulingProblem.of(cloudletList, vmList);
+        }
+        return problem;
+    }
+
     @Override
     public CloudletToVmMappingSolution getInitialSolution() {
         if (this.initialSolution == null || this.initialSolution.getResult().isEmpty()) {
@@ -124,11 +151,40 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
 
     @Override
     public boolean isToStopSearch() {
-        return false;
+        return termination != null && termination.isToStop();
+    }
+
+    public TerminationPolicy getTerminationPolicy() {
+        return terminationPolicy;
+    }
+
+    /**
+     * Sets when {@link #solve()} may stop before its maximum number of iterations.
+     */
+    public CloudletToVmMappingWhaleOptimizationAlgorithm setTerminationPolicy(TerminationPolicy terminationPolicy) {
+        this.terminationPolicy = Objects.requireNonNull(terminationPolicy);
+        return this;
+    }
+
+    /**
+     * Sets a callback for each improvement of the best solution while {@link #solve()} runs,
+     * so callers can act on a good enough mapping before the search ends.
+     */
+    public CloudletToVmMappingWhaleOptimizationAlgorithm setImprovementListener(Consumer<? super CloudletToVmMappingSolution> improvementListener) {
+        this.improvementListener = Objects.requireNonNull(improvementListener);
+        return this;
+    }
+
+    /**
+     * Sets where {@link #solve()} records the statistics of each generation, to be read once it returns.
+     */
+    public CloudletToVmMappingWhaleOptimizationAlgorithm setTelemetry(ConvergenceTelemetry telemetry) {
+        this.telemetry = Objects.requireNonNull(telemetry);
+        return this;
     }
 
     private CloudletToVmMappingSolution generateRandomSolution() {
-        CloudletToVmMappingSolution solution = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution solution = new IndexedCloudletToVmSolution(this, getProblem());
         cloudletList.forEach(cloudlet -> solution.bindCloudletToVm(cloudlet, getRandomVm()));
         return solution;
     }
@@ -166,7 +222,7 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
     }
 
     public CloudletToVmMappingSolution createNewPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best, double A, double C) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         for (Cloudlet cloudlet : cloudletList) {
             Vm bestVm = best.getResult().get(cloudlet);
             Vm whaleVm = whale.getResult().get(cloudlet);
@@ -186,7 +242,7 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
     }
 
     public CloudletToVmMappingSolution createSpiralPosition(CloudletToVmMappingSolution whale, CloudletToVmMappingSolution best) {
-        CloudletToVmMappingSolution newWhale = new WeightedCloudletToVmSolution(this);
+        CloudletToVmMappingSolution newWhale = new IndexedCloudletToVmSolution(this, getProblem());
         double b = 2;
         double l = random.sample() * 2 - 1; // a random number in [ −1,1]
         for (Cloudlet cloudlet : cloudletList) {
@@ -207,24 +263,41 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
     }
 
     public void updateBestSolution(List<CloudletToVmMappingSolution> population) {
-        population.sort((s1, s2) -> Double.compare(s2.getFitness(), s1.getFitness()));
-        if (bestSolutionSoFar == null || population.get(0).getFitness() > bestSolutionSoFar.getFitness()) {
-            bestSolutionSoFar = population.get(0);
+        FitnessEvaluator.evaluate(population);
+        CloudletToVmMappingSolution fittest = Fittest.of(population);
+        if (bestSolutionSoFar == null || fittest.getFitness() > bestSolutionSoFar.getFitness()) {
+            bestSolutionSoFar = fittest;
         }
     }
 
     @Override
     public CloudletToVmMappingSolution solve() {
+        return solve(terminationPolicy);
+    }
+
+    /**
+     * Solves in anytime mode: returns the best solution found when the deadline expires,
+     * unless the termination policy stops the search sooner.
+     */
+    public CloudletToVmMappingSolution solve(Duration deadline) {
+        return solve(terminationPolicy.withTimeBudgetAtMost(deadline));
+    }
+
+    private CloudletToVmMappingSolution solve(TerminationPolicy policy) {
         long startTime = System.currentTimeMillis();
+        problem = SchedulingProblem.of(cloudletList, vmList);
+        termination = policy.start(improvementListener);
+        telemetry.start();
         List<CloudletToVmMappingSolution> population = generateInitialPopulation();
         updateBestSolution(population);
 
-        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+        for (int iteration = 0; iteration < MAX_ITERATIONS && !isToStopSearch(); iteration++) {
             double[] coefficients = updateCoefficients(iteration);
             double A = coefficients[0];
             double C = coefficients[1];
             double a = coefficients[2];
 
+            final long moveStart = MOVE.start();
             List<CloudletToVmMappingSolution> newPopulation = new ArrayList<>();
 
             for (CloudletToVmMappingSolution whale : population) {
@@ -241,8 +314,10 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
                     newPopulation.add(createSpiralPosition(whale, bestSolutionSoFar));
                 }
             }
+            MOVE.stop(moveStart);
             // This part may be redundant as we are already doing the constraint check after each function
 
+            final long repairStart = REPAIR.start();
             for (CloudletToVmMappingSolution newWhale : newPopulation) {
                 for (Cloudlet cloudlet : cloudletList) {
                     Vm vm = newWhale.getResult().get(cloudlet);
@@ -252,11 +327,16 @@ public class CloudletToVmMappingWhaleOptimizationAlgorithm implements CloudletTo
                 }
 
             }
+            REPAIR.stop(repairStart);
 
             population = newPopulation;
+            final long updateStart = UPDATE_BEST.start();
             updateBestSolution(population);
+            UPDATE_BEST.stop(updateStart);
+            termination.update(bestSolutionSoFar, population.size());
+            telemetry.record(termination.getGenerations(), population, termination.getEvaluations());
 
-            if (iteration % 50 == 0) {
+            if (iteration % 50 == 0 && logger.isDebugEnabled()) {
                 logger.debug("[#{}] : {}", iteration, bestSolutionSoFar.getResult());
                 logger.debug("[#{}] : {}", iteration, bestSolutionSoFar.getFitness());
 
@@ -0,0 +1,86 @@
+package thesis.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FitnessCacheTest {
+    /**
+     * The number of slots of a set, so a cache of this capacity holds a single set.
+     */
+    private static final int WAYS = 8;
+
+    @Test
+    void missesUntilPut() {
+        FitnessCache cache = new FitnessCache();
+
+        assertTrue(Double.isNaN(cache.get(42)));
+        cache.put(42, 1.5);
+        assertEquals(1.5, cache.get(42));
+        cache.put(42, 2.5);
+        assertEquals(2.5, cache.get(42));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3, cache.getHitRate());
+    }
+
+    @Test
+    void hitRateIsZeroBeforeTheFirstLookup() {
+        assertEquals(0.0, new FitnessCache().getHitRate());
+    }
+
+    @Test
+    void removedCostsMiss() {
+        FitnessCache cache = new FitnessCache();
+        cache.put(42, 1.5);
+        cache.remove(42);
+        cache.remove(43);
+
+        assertTrue(Double.isNaN(cache.get(42)));
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void fullSetEvictsTheOldestUnreadSlot() {
+        FitnessCache cache = new FitnessCache(WAYS);
+        for (long hash = 0; hash < WAYS; hash++) {
+            cache.put(hash, hash);
+        }
+        // Gives the first slot a second chance, so the hand passes it
+        assertEquals(0.0, cache.get(0));
+
+        cache.put(WAYS, WAYS);
+
+        assertEquals(0.0, cache.get(0));
+        assertTrue(Double.isNaN(cache.get(1)));
+        for (long hash = 2; hash <= WAYS; hash++) {
+            assertEquals(hash, cache.get(hash));
+        }
+    }
+
+    @Test
+    void evictionFollowsTheHand() {
+        FitnessCache cache = new FitnessCache(WAYS);
+        for (long hash = 0; hash < 2 * WAYS; hash++) {
+            cache.put(hash, hash);
+        }
+
+        for (long hash = 0; hash < WAYS; hash++) {
+            assertTrue(Double.isNaN(cache.get(hash)));
+        }
+        for (long hash = WAYS; hash < 2 * WAYS; hash++) {
+            assertEquals(hash, cache.get(hash));
+        }
+    }
+
+    @Test
+    void capacityIsRoundedUpToWholeSets() {
+        assertEquals(WAYS, new FitnessCache(1).getCapacity());
+        assertEquals(16 * WAYS, new FitnessCache(100).getCapacity());
+        assertEquals(FitnessCache.DEFAULT_CAPACITY, new FitnessCache().getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new FitnessCache(0));
+    }
+}
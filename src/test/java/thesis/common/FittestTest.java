@@ -0,0 +1,87 @@
+package thesis.common;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.heuristics.Heuristic;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FittestTest {
+    private static final Comparator<CloudletToVmMappingSolution> FITTEST_FIRST =
+            Comparator.comparingDouble(CloudletToVmMappingSolution::getFitness).reversed();
+
+    @Test
+    void topMatchesAStableSortByDescendingFitness() {
+        Random random = new Random(12345);
+        for (int round = 0; round < 200; round++) {
+            // Few distinct values, so most populations have ties
+            List<CloudletToVmMappingSolution> population = population(random.nextInt(40), random);
+            List<CloudletToVmMappingSolution> before = List.copyOf(population);
+            List<CloudletToVmMappingSolution> sorted = population.stream().sorted(FITTEST_FIRST).toList();
+
+            int k = random.nextInt(population.size() + 5);
+            assertEquals(sorted.subList(0, Math.min(k, sorted.size())), Fittest.top(population, k));
+            assertEquals(before, population);
+        }
+    }
+
+    @Test
+    void tiesKeepPopulationOrder() {
+        CloudletToVmMappingSolution first = withFitness(1.0);
+        CloudletToVmMappingSolution second = withFitness(1.0);
+        CloudletToVmMappingSolution third = withFitness(1.0);
+
+        assertEquals(List.of(first, second), Fittest.top(List.of(first, second, third), 2));
+        assertSame(first, Fittest.of(List.of(first, second, third)));
+    }
+
+    @Test
+    void ofPicksTheFirstFittest() {
+        CloudletToVmMappingSolution fittest = withFitness(3.0);
+        List<CloudletToVmMappingSolution> population =
+                List.of(withFitness(1.0), fittest, withFitness(2.0), withFitness(3.0), withFitness(-1.0));
+
+        assertSame(fittest, Fittest.of(population));
+        assertNull(Fittest.of(List.of()));
+    }
+
+    @Test
+    void keepingNoneOrMoreThanThePopulation() {
+        List<CloudletToVmMappingSolution> population = population(10, new Random(1));
+
+        assertTrue(Fittest.top(population, 0).isEmpty());
+        assertEquals(population.stream().sorted(FITTEST_FIRST).toList(), Fittest.top(population, 20));
+        assertTrue(Fittest.top(List.of(), 3).isEmpty());
+    }
+
+    @Test
+    void rejectsNegativeCounts() {
+        assertThrows(IllegalArgumentException.class, () -> Fittest.top(List.of(withFitness(1.0)), -1));
+    }
+
+    private static List<CloudletToVmMappingSolution> population(int size, Random random) {
+        List<CloudletToVmMappingSolution> population = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            population.add(withFitness(random.nextInt(5)));
+        }
+        return population;
+    }
+
+    private static CloudletToVmMappingSolution withFitness(double fitness) {
+        return new CloudletToVmMappingSolution((Heuristic) null) {
+            @Override
+            public double getFitness() {
+                return fitness;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package thesis.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultsSinkTest {
+    private static final ResultsSink.Schema SCHEMA = ResultsSink.Schema.of(2, "name,value");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesAPlainCsvWithTheVersionAlongside() throws IOException {
+        Path path = directory.resolve("results.csv");
+        try (var sink = open(path, SCHEMA)) {
+            sink.write("a", 1.5);
+            sink.write("b,c", null);
+        }
+
+        assertEquals(List.of("name,value", "a,1.5", "\"b,c\","), Files.readAllLines(path));
+        assertEquals(List.of("schema_version=2"), Files.readAllLines(schemaOf(path)));
+    }
+
+    @Test
+    void appendsToAFileOfTheSameSchema() throws IOException {
+        Path path = directory.resolve("results.csv");
+        try (var sink = open(path, SCHEMA)) {
+            sink.write("a", 1);
+        }
+        try (var sink = open(path, SCHEMA)) {
+            sink.write("b", 2);
+        }
+
+        assertEquals(List.of("name,value", "a,1", "b,2"), Files.readAllLines(path));
+    }
+
+    @Test
+    void movesAsideAFileOfAnotherVersion() throws IOException {
+        Path path = directory.resolve("results.csv");
+        try (var sink = open(path, SCHEMA)) {
+            sink.write("a", 1);
+        }
+        try (var sink = open(path, ResultsSink.Schema.of(3, "name,value"))) {
+            sink.write("b", 2);
+        }
+
+        assertEquals(List.of("name,value", "b,2"), Files.readAllLines(path));
+        assertEquals(List.of("schema_version=3"), Files.readAllLines(schemaOf(path)));
+        try (var files = Files.list(directory)) {
+            assertEquals(4, files.count());
+        }
+    }
+
+    @Test
+    void movesAsideAFileWithoutAVersion() throws IOException {
+        Path path = directory.resolve("results.csv");
+        Files.writeString(path, "name,value\na,1\n");
+        try (var sink = open(path, SCHEMA)) {
+            sink.write("b", 2);
+        }
+
+        assertEquals(List.of("name,value", "b,2"), Files.readAllLines(path));
+    }
+
+    @Test
+    void rejectsRowsOfTheWrongWidth() {
+        try (var sink = open(directory.resolve("results.csv"), SCHEMA)) {
+            assertThrows(IllegalArgumentException.class, () -> sink.write("a"));
+        }
+    }
+
+    private static ResultsSink open(Path path, ResultsSink.Schema schema) {
+        return new ResultsSink(path, schema, ResultsSink.DEFAULT_FLUSH_ROWS, Duration.ofMinutes(1));
+    }
+
+    private static Path schemaOf(Path path) {
+        return path.resolveSibling(path.getFileName() + ResultsSink.SCHEMA_SUFFIX);
+    }
+}
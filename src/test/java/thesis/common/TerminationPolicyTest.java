@@ -0,0 +1,123 @@
+package thesis.common;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.heuristics.Heuristic;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TerminationPolicyTest {
+    @Test
+    void stopsAfterStalledGenerations() {
+        TerminationPolicy.Run run = TerminationPolicy.NONE.withStallGenerations(3).withMinRelativeImprovement(0.01).start();
+
+        assertFalse(run.update(withFitness(1.0)));
+        assertFalse(run.update(withFitness(1.0)));
+        assertFalse(run.update(withFitness(1.005)));
+        assertEquals(2, run.getStalledGenerations());
+        assertTrue(run.update(withFitness(1.005)));
+        assertTrue(run.isToStop());
+        assertEquals(4, run.getGenerations());
+    }
+
+    @Test
+    void slowCreepCountsOnceItAddsUp() {
+        TerminationPolicy.Run run = TerminationPolicy.NONE.withStallGenerations(3).withMinRelativeImprovement(0.01).start();
+
+        run.update(withFitness(1.0));
+        run.update(withFitness(1.004));
+        run.update(withFitness(1.008));
+        assertEquals(2, run.getStalledGenerations());
+
+        // 1.2% above the last improvement, though only 0.4% above the previous generation
+        assertFalse(run.update(withFitness(1.012)));
+        assertEquals(0, run.getStalledGenerations());
+    }
+
+    @Test
+    void staysStoppedOnceStalled() {
+        TerminationPolicy.Run run = TerminationPolicy.NONE.withStallGenerations(1).start();
+
+        run.update(withFitness(1.0));
+        assertTrue(run.update(withFitness(1.0)));
+        assertTrue(run.update(withFitness(2.0)));
+        assertTrue(run.isToStop());
+    }
+
+    @Test
+    void noneNeverStops() {
+        TerminationPolicy.Run run = TerminationPolicy.NONE.start();
+        for (int generation = 0; generation < 1000; generation++) {
+            assertFalse(run.update(withFitness(1.0), 100));
+        }
+        assertFalse(run.isToStop());
+    }
+
+    @Test
+    void publishesEveryImprovementEvenBelowTheThreshold() {
+        List<CloudletToVmMappingSolution> published = new ArrayList<>();
+        TerminationPolicy.Run run = TerminationPolicy.DEFAULT.start(published::add);
+
+        CloudletToVmMappingSolution first = withFitness(1.0);
+        CloudletToVmMappingSolution slightlyBetter = withFitness(1.0 + 1e-9);
+        run.update(first);
+        run.update(first);
+        run.update(withFitness(0.5));
+        run.update(slightlyBetter);
+
+        assertEquals(List.of(first, slightlyBetter), published);
+        assertEquals(3, run.getStalledGenerations());
+    }
+
+    @Test
+    void stopsOnceTheEvaluationBudgetIsSpent() {
+        TerminationPolicy.Run run = TerminationPolicy.NONE.withMaxEvaluations(100).start();
+
+        run.countEvaluations(30);
+        assertFalse(run.update(withFitness(1.0), 30));
+        assertTrue(run.update(withFitness(2.0), 40));
+        assertEquals(100, run.getEvaluations());
+    }
+
+    @Test
+    void stopsOnceTheTimeBudgetIsSpent() throws InterruptedException {
+        TerminationPolicy.Run run = TerminationPolicy.NONE.withTimeBudget(Duration.ofMillis(1)).start();
+        Thread.sleep(5);
+        assertTrue(run.isToStop());
+    }
+
+    @Test
+    void keepsATighterTimeBudget() {
+        TerminationPolicy tight = TerminationPolicy.DEFAULT.withTimeBudget(Duration.ofSeconds(1));
+
+        assertSame(tight, tight.withTimeBudgetAtMost(Duration.ofSeconds(2)));
+        assertEquals(Duration.ofMillis(500), tight.withTimeBudgetAtMost(Duration.ofMillis(500)).getTimeBudget());
+        assertEquals(Duration.ofSeconds(2), TerminationPolicy.DEFAULT.withTimeBudgetAtMost(Duration.ofSeconds(2)).getTimeBudget());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> TerminationPolicy.NONE.withStallGenerations(-1));
+        assertThrows(IllegalArgumentException.class, () -> TerminationPolicy.NONE.withMinRelativeImprovement(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> TerminationPolicy.NONE.withMinRelativeImprovement(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> TerminationPolicy.NONE.withTimeBudget(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> TerminationPolicy.NONE.withMaxEvaluations(-1));
+    }
+
+    private static CloudletToVmMappingSolution withFitness(double fitness) {
+        return new CloudletToVmMappingSolution((Heuristic) null) {
+            @Override
+            public double getFitness() {
+                return fitness;
+            }
+        };
+    }
+}
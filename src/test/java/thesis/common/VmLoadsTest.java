@@ -0,0 +1,133 @@
+package thesis.common;
+
+import org.cloudsimplus.vms.Vm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VmLoadsTest {
+    private static final int VMS = 20;
+    private static final int CLOUDLETS = 300;
+    private static final int MOVES = 2000;
+
+    private SchedulingProblem problem;
+    private Random random;
+
+    @BeforeEach
+    void createProblem() {
+        Workload workload = Workload.generate(0, VMS, CLOUDLETS, new Random(12345));
+        problem = SchedulingProblem.of(workload.createCloudlets(), new ArrayList<Vm>(workload.createVms()));
+        random = new Random(42);
+    }
+
+    @Test
+    void movesMatchLoadsBuiltFromScratch() {
+        int[] vmIndexes = randomAssignment();
+        VmLoads loads = VmLoads.of(problem, vmIndexes);
+        for (int i = 0; i < MOVES; i++) {
+            int cloudlet = random.nextInt(CLOUDLETS);
+            int vm = randomVmOrUnassigned();
+            loads.move(cloudlet, vmIndexes[cloudlet], vm);
+            vmIndexes[cloudlet] = vm;
+        }
+
+        assertClose(VmLoads.of(problem, vmIndexes).cost(), loads.cost());
+    }
+
+    @Test
+    void emptyingEveryVmLeavesNoResidue() {
+        int[] vmIndexes = randomAssignment();
+        VmLoads loads = VmLoads.of(problem, vmIndexes);
+        for (int cloudlet = 0; cloudlet < CLOUDLETS; cloudlet++) {
+            loads.move(cloudlet, vmIndexes[cloudlet], IndexedCloudletToVmSolution.UNASSIGNED);
+        }
+
+        assertEquals(Double.MAX_VALUE, loads.cost());
+    }
+
+    @Test
+    void incrementalCostMatchesFullRecompute() {
+        IndexedCloudletToVmSolution solution = randomSolution();
+        solution.getCost();
+        for (int i = 0; i < MOVES; i++) {
+            solution.setVmIndex(random.nextInt(CLOUDLETS), random.nextInt(VMS));
+        }
+
+        double incremental = solution.getCost();
+        assertClose(FitnessEvaluator.cost(solution.getResult()), incremental);
+        assertClose(solution.getCost(true), incremental);
+    }
+
+    @Test
+    void copiesInheritLoadsWithoutSharingThem() {
+        IndexedCloudletToVmSolution source = randomSolution();
+        double sourceCost = source.getCost();
+
+        IndexedCloudletToVmSolution copy = source.copy();
+        for (int i = 0; i < CLOUDLETS / 2; i++) {
+            copy.setVmIndex(random.nextInt(CLOUDLETS), random.nextInt(VMS));
+        }
+
+        assertClose(FitnessEvaluator.cost(copy.getResult()), copy.getCost());
+        assertEquals(sourceCost, source.getCost());
+        assertEquals(sourceCost, source.getCost(true));
+    }
+
+    @Test
+    void cachedCostIsUpdatedIncrementallyAfterwards() {
+        int[] vmIndexes = randomAssignment();
+        IndexedCloudletToVmSolution evaluated = solutionOf(vmIndexes);
+        evaluated.getCost();
+        long hits = problem.getFitnessCache().getHits();
+
+        // Same assignment, so its cost comes from the cache before its first move
+        IndexedCloudletToVmSolution cached = solutionOf(vmIndexes);
+        assertEquals(evaluated.getCost(), cached.getCost());
+        assertEquals(hits + 1, problem.getFitnessCache().getHits());
+
+        for (int i = 0; i < MOVES; i++) {
+            int cloudlet = random.nextInt(CLOUDLETS);
+            int vm = random.nextInt(VMS);
+            cached.setVmIndex(cloudlet, vm);
+            evaluated.setVmIndex(cloudlet, vm);
+        }
+        assertEquals(evaluated.getCost(), cached.getCost());
+        assertClose(FitnessEvaluator.cost(cached.getResult()), cached.getCost());
+    }
+
+    private int[] randomAssignment() {
+        int[] vmIndexes = new int[CLOUDLETS];
+        for (int cloudlet = 0; cloudlet < CLOUDLETS; cloudlet++) {
+            vmIndexes[cloudlet] = random.nextInt(VMS);
+        }
+        return vmIndexes;
+    }
+
+    private int randomVmOrUnassigned() {
+        int vm = random.nextInt(VMS + 1);
+        return vm == VMS ? IndexedCloudletToVmSolution.UNASSIGNED : vm;
+    }
+
+    private IndexedCloudletToVmSolution randomSolution() {
+        return solutionOf(randomAssignment());
+    }
+
+    private IndexedCloudletToVmSolution solutionOf(int[] vmIndexes) {
+        IndexedCloudletToVmSolution solution = new IndexedCloudletToVmSolution(null, problem);
+        for (int cloudlet = 0; cloudlet < vmIndexes.length; cloudlet++) {
+            solution.setVmIndex(cloudlet, vmIndexes[cloudlet]);
+        }
+        return solution;
+    }
+
+    /**
+     * Incremental totals may drift from a recomputation by a few ulps.
+     */
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, Math.abs(expected) * 1e-9);
+    }
+}
@@ -0,0 +1,62 @@
+package thesis.fwa;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DimensionSamplerTest {
+    private static final int DIMENSIONS = 50;
+
+    @Test
+    void drawsDistinctPositionsInRange() {
+        SplittableRandom rng = new SplittableRandom(1);
+        for (int draw = 0; draw < 1000; draw++) {
+            int count = rng.nextInt(DIMENSIONS + 1);
+            int[] positions = DimensionSampler.sample(DIMENSIONS, count, rng);
+
+            boolean[] seen = new boolean[DIMENSIONS];
+            for (int i = 0; i < count; i++) {
+                int position = positions[i];
+                assertTrue(position >= 0 && position < DIMENSIONS, "position out of range: " + position);
+                assertFalse(seen[position], "position drawn twice: " + position);
+                seen[position] = true;
+            }
+        }
+    }
+
+    @Test
+    void drawDependsOnlyOnRandomGenerator() throws InterruptedException {
+        int[] first = draw(DIMENSIONS, 10, 7);
+
+        // Leaves swaps of other sizes behind, which the next draw must undo
+        SplittableRandom other = new SplittableRandom(2);
+        for (int count = 0; count <= DIMENSIONS; count += 5) {
+            DimensionSampler.sample(DIMENSIONS, count, other);
+        }
+        assertArrayEquals(first, draw(DIMENSIONS, 10, 7));
+
+        // A thread that never sampled starts from the identity
+        AtomicReference<int[]> fresh = new AtomicReference<>();
+        Thread thread = new Thread(() -> fresh.set(draw(DIMENSIONS, 10, 7)));
+        thread.start();
+        thread.join();
+        assertArrayEquals(first, fresh.get());
+    }
+
+    @Test
+    void changingDimensionsStartsFromTheIdentity() {
+        int[] first = draw(DIMENSIONS, 10, 7);
+        DimensionSampler.sample(DIMENSIONS * 2, DIMENSIONS, new SplittableRandom(3));
+        assertArrayEquals(first, draw(DIMENSIONS, 10, 7));
+    }
+
+    private static int[] draw(int dimensions, int count, long seed) {
+        return Arrays.copyOf(DimensionSampler.sample(dimensions, count, new SplittableRandom(seed)), count);
+    }
+}
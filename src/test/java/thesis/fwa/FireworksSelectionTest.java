@@ -0,0 +1,76 @@
+package thesis.fwa;
+
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.vms.Vm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import thesis.common.IndexedCloudletToVmSolution;
+import thesis.common.SchedulingProblem;
+import thesis.common.Workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FireworksSelectionTest {
+    private static final int VMS = 10;
+    private static final int CLOUDLETS = 50;
+    private static final int SIZE = 30;
+
+    private SchedulingProblem problem;
+    private FireworksSelection selection;
+    private Random random;
+
+    @BeforeEach
+    void createProblem() {
+        Workload workload = Workload.generate(0, VMS, CLOUDLETS, new Random(12345));
+        problem = SchedulingProblem.of(workload.createCloudlets(), new ArrayList<Vm>(workload.createVms()));
+        selection = new FireworksSelection(problem);
+        random = new Random(42);
+    }
+
+    @Test
+    void drawsTheRequestedNumberOfCandidates() {
+        List<CloudletToVmMappingSolution> candidates = new ArrayList<>();
+        for (int i = 0; i < 2 * SIZE; i++) {
+            candidates.add(randomSolution());
+        }
+        CloudletToVmMappingSolution best = candidates.get(0);
+
+        for (long seed = 0; seed < 100; seed++) {
+            List<CloudletToVmMappingSolution> survivors = selection.select(candidates, best, SIZE, new SplittableRandom(seed));
+
+            assertEquals(SIZE, survivors.size());
+            assertSame(best, survivors.get(0));
+            assertTrue(candidates.containsAll(survivors));
+        }
+    }
+
+    @Test
+    void candidatesMappingLikeTheBestStillFillThePopulation() {
+        IndexedCloudletToVmSolution best = randomSolution();
+        List<CloudletToVmMappingSolution> candidates = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            candidates.add(best.copy());
+        }
+
+        List<CloudletToVmMappingSolution> survivors = selection.select(candidates, best, SIZE, new SplittableRandom(1));
+
+        assertEquals(SIZE, survivors.size());
+        assertTrue(candidates.containsAll(survivors.subList(1, SIZE)));
+    }
+
+    private IndexedCloudletToVmSolution randomSolution() {
+        IndexedCloudletToVmSolution solution = new IndexedCloudletToVmSolution(null, problem);
+        for (int cloudlet = 0; cloudlet < CLOUDLETS; cloudlet++) {
+            solution.setVmIndex(cloudlet, random.nextInt(VMS));
+        }
+        return solution;
+    }
+}